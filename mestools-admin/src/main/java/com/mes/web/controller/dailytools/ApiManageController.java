@@ -6,18 +6,30 @@ import com.mes.common.core.domain.AjaxResult;
 import com.mes.common.core.page.TableDataInfo;
 import com.mes.common.enums.BusinessType;
 import com.mes.common.utils.SecurityUtils;
+import com.mes.framework.config.properties.HttpClientProperties;
 import com.mes.system.domain.ApiManageHistory;
 import com.mes.system.domain.ApiManageItem;
+import com.mes.system.domain.dto.ApiManageImportDto;
+import com.mes.system.domain.dto.ApiRunnerDto;
 import com.mes.system.domain.dto.ProxyRequestDto;
+import com.mes.system.domain.vo.ApiRunReportVo;
 import com.mes.system.service.IApiManageService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @Author: weiyiming
@@ -29,9 +41,25 @@ import java.util.Map;
 @RequestMapping("/dailytools/apiManage")
 public class ApiManageController extends BaseController {
 
+    /**
+     * 集合运行最长等待时间（毫秒）
+     */
+    private static final long RUNNER_TIMEOUT = 10 * 60 * 1000L;
+
+    /**
+     * 历史记录游标分页每页最大条数
+     */
+    private static final int HISTORY_MAX_PAGE_SIZE = 100;
+
     @Autowired
     private IApiManageService apiManageService;
 
+    @Autowired
+    private PoolingHttpClientConnectionManager httpClientConnectionManager;
+
+    @Autowired
+    private HttpClientProperties httpClientProperties;
+
     // --- 接口树管理 ---
 
     @GetMapping("/tree")
@@ -120,6 +148,48 @@ public class ApiManageController extends BaseController {
         return getDataTable(list);
     }
 
+    @GetMapping("/history/page")
+    @ApiOperation("游标分页获取历史记录")
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public AjaxResult pageHistory(@RequestParam(value = "itemId", required = false) Long itemId,
+                                  @RequestParam(value = "lastCreateTime", required = false) Long lastCreateTime,
+                                  @RequestParam(value = "lastHistoryId", required = false) Long lastHistoryId,
+                                  @RequestParam(value = "pageSize", defaultValue = "20") Integer pageSize) {
+        int size = Math.max(1, Math.min(pageSize, HISTORY_MAX_PAGE_SIZE));
+        // 多查一条判断是否还有下一页
+        // 游标时间以毫秒时间戳传递，避免日期格式化丢失毫秒导致漏读或重复
+        Date cursorTime = lastCreateTime != null ? new Date(lastCreateTime) : null;
+        List<ApiManageHistory> list = apiManageService.selectHistoryPage(itemId, cursorTime, lastHistoryId, size + 1);
+        boolean hasMore = list.size() > size;
+        if (hasMore) {
+            list = list.subList(0, size);
+        }
+        AjaxResult ajax = AjaxResult.success(list);
+        ajax.put("hasMore", hasMore);
+        ApiManageHistory last = list.isEmpty() ? null : list.get(list.size() - 1);
+        ajax.put("lastCreateTime", last == null ? null : last.getCreateTime().getTime());
+        ajax.put("lastHistoryId", last == null ? null : last.getHistoryId());
+        return ajax;
+    }
+
+    @GetMapping("/history/{historyId}")
+    @ApiOperation("获取历史记录详情（含快照）")
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public AjaxResult getHistory(@PathVariable("historyId") Long historyId) {
+        ApiManageHistory history = apiManageService.selectHistoryById(historyId);
+        if (history == null) {
+            return AjaxResult.error("历史记录不存在或已被清理");
+        }
+        return AjaxResult.success(history);
+    }
+
+    @GetMapping("/history/stats")
+    @ApiOperation("获取历史记录写入状态")
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public AjaxResult historyStats() {
+        return AjaxResult.success(apiManageService.selectHistoryWriterStats());
+    }
+
     @PostMapping("/history")
     @ApiOperation("新增历史记录")
     @Log(title = "接口管理-历史记录", businessType = BusinessType.INSERT)
@@ -139,6 +209,70 @@ public class ApiManageController extends BaseController {
         return AjaxResult.success(result);
     }
 
+    @PostMapping("/proxy/async")
+    @ApiOperation("发送代理请求（异步）")
+    @Log(title = "接口管理-代理请求", businessType = BusinessType.OTHER, isSaveResponseData = false)
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public DeferredResult<AjaxResult> proxyRequestAsync(@RequestBody ProxyRequestDto proxyRequest) {
+        // 等待下游响应期间释放 Tomcat 工作线程，超时时间覆盖获取连接、建立连接与读取
+        long timeout = (long) httpClientProperties.getConnectionRequestTimeout() + httpClientProperties.getConnectTimeout()
+                + httpClientProperties.getReadTimeout();
+        DeferredResult<AjaxResult> deferredResult = new DeferredResult<>(timeout, AjaxResult.error("代理请求超时"));
+        CompletableFuture<Map<String, Object>> future = apiManageService.proxyRequestAsync(proxyRequest);
+        deferredResult.onTimeout(() -> future.cancel(true));
+        future.whenComplete((result, e) -> {
+            if (e != null) {
+                deferredResult.setErrorResult(e);
+            } else {
+                deferredResult.setResult(AjaxResult.success(result));
+            }
+        });
+        return deferredResult;
+    }
+
+    @PostMapping("/runner")
+    @ApiOperation("集合运行（批量执行/压测）")
+    @Log(title = "接口管理-集合运行", businessType = BusinessType.OTHER, isSaveResponseData = false)
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public DeferredResult<AjaxResult> runCollection(@RequestBody ApiRunnerDto runner) {
+        DeferredResult<AjaxResult> deferredResult = new DeferredResult<>(RUNNER_TIMEOUT, AjaxResult.error("集合运行超时"));
+        CompletableFuture<ApiRunReportVo> future = apiManageService.runCollection(runner);
+        deferredResult.onTimeout(() -> future.cancel(true));
+        future.whenComplete((report, e) -> {
+            if (e != null) {
+                deferredResult.setErrorResult(e);
+            } else {
+                deferredResult.setResult(AjaxResult.success(report));
+            }
+        });
+        return deferredResult;
+    }
+
+    @GetMapping("/proxy/poolStats")
+    @ApiOperation("获取代理连接池状态")
+    @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:list')")
+    public AjaxResult poolStats() {
+        Map<String, Object> stats = toPoolStatsMap(httpClientConnectionManager.getTotalStats());
+        stats.put("defaultMaxPerRoute", httpClientConnectionManager.getDefaultMaxPerRoute());
+        List<Map<String, Object>> routes = new ArrayList<>();
+        for (HttpRoute route : httpClientConnectionManager.getRoutes()) {
+            Map<String, Object> routeStats = toPoolStatsMap(httpClientConnectionManager.getStats(route));
+            routeStats.put("route", route.getTargetHost().toURI());
+            routes.add(routeStats);
+        }
+        stats.put("routes", routes);
+        return AjaxResult.success(stats);
+    }
+
+    private Map<String, Object> toPoolStatsMap(PoolStats poolStats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("leased", poolStats.getLeased());
+        map.put("available", poolStats.getAvailable());
+        map.put("pending", poolStats.getPending());
+        map.put("max", poolStats.getMax());
+        return map;
+    }
+
     // --- 导入导出 ---
 
     @GetMapping("/export")
@@ -152,7 +286,7 @@ public class ApiManageController extends BaseController {
     @ApiOperation("导入备份数据")
     @Log(title = "接口管理-导入", businessType = BusinessType.IMPORT)
     @PreAuthorize("@ss.hasPermi('dailyTools:apiManage:import')")
-    public AjaxResult importData(@RequestBody Map<String, Object> data) {
+    public AjaxResult importData(@RequestBody ApiManageImportDto data) {
         apiManageService.importData(data);
         return AjaxResult.success();
     }
@@ -6,7 +6,9 @@ import com.mes.common.core.domain.AjaxResult;
 import com.mes.common.core.domain.model.LoginUser;
 import com.mes.common.enums.BusinessType;
 import com.mes.common.utils.SecurityUtils;
+import com.mes.system.domain.dto.BatchChangePwdDTO;
 import com.mes.system.domain.dto.ChangePwdDTO;
+import com.mes.system.domain.vo.ChangePwdResultVo;
 import com.mes.system.service.IChangePwdService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * @Author: weiyiming
@@ -79,4 +82,24 @@ public class ChangePwdController extends BaseController {
             return AjaxResult.error("密码修改异常：" + e.getMessage());
         }
     }
+
+    /**
+     * 批量修改其他用户密码，返回每个账号的处理结果
+     *
+     * @param batchDTO
+     * @return
+     */
+    @ApiOperation("批量修改其他用户密码")
+    @PreAuthorize("@ss.hasPermi('dailyTools:changePwd:otherFisNo')")
+    @Log(title = "FisWeb改密-批量", businessType = BusinessType.UPDATE)
+    @PutMapping("/batch")
+    public AjaxResult batchChangePwd(@Valid @RequestBody BatchChangePwdDTO batchDTO) {
+        try {
+            List<ChangePwdResultVo> results = changePwdService.batchChangePwd(batchDTO.getAccounts(), batchDTO.getDbDataSource());
+            long successCount = results.stream().filter(ChangePwdResultVo::isSuccess).count();
+            return AjaxResult.success("批量修改完成：成功 " + successCount + " 个,失败 " + (results.size() - successCount) + " 个", results);
+        } catch (Exception e) {
+            return AjaxResult.error("批量修改密码异常：" + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -3,9 +3,12 @@ package com.mes.web.controller.dailytools;
 import com.mes.common.annotation.Log;
 import com.mes.common.core.controller.BaseController;
 import com.mes.common.core.domain.AjaxResult;
+import com.mes.common.core.page.TableDataInfo;
 import com.mes.common.enums.BusinessType;
+import com.mes.system.domain.ExecuteSqlHistory;
 import com.mes.system.domain.ValidationResult;
 import com.mes.system.domain.dto.ExecuteSqlDTO;
+import com.mes.system.domain.vo.FanOutQueryVo;
 import com.mes.system.service.IExecuteSqlService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -13,6 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -93,6 +98,73 @@ public class ExecuteSqlController extends BaseController {
         return handleExecute(request, "SELECT", (db, sql) -> sqlExecuteService.executeQuery(db, sql));
     }
 
+    /**
+     * 多数据源并发查询操作
+     *
+     * @param request
+     * @return
+     */
+    @ApiOperation("多数据源并发查询")
+    @PreAuthorize("@ss.hasPermi('dailyTools:executeSql:query')")
+    @Log(title = "SQL执行工具", businessType = BusinessType.SELECT, isSaveResponseData = false)
+    @PostMapping("/fanOutQuery")
+    public AjaxResult executeFanOutQuery(@RequestBody ExecuteSqlDTO request) {
+        if (request.getDbDataSources() == null || request.getDbDataSources().isEmpty()) {
+            return AjaxResult.error("请至少选择一个数据源");
+        }
+        ValidationResult validation = validate(request.getSqlContent(), "SELECT");
+        if (!validation.isValid()) {
+            return AjaxResult.error("SQL语句验证失败：" + validation.getMessage());
+        }
+        // 各数据源的超时由Service单独控制,部分数据源失败时仍返回其余结果
+        FanOutQueryVo result = sqlExecuteService.executeFanOutQuery(request.getDbDataSources(), request.getSqlContent());
+        if (result.isPartial()) {
+            return AjaxResult.success("部分数据源查询失败：" + result.getFailures(), result);
+        }
+        return AjaxResult.success(result);
+    }
+
+    /**
+     * 执行计划与统计信息分析
+     *
+     * @param request
+     * @return
+     */
+    @ApiOperation("分析查询执行计划")
+    @PreAuthorize("@ss.hasPermi('dailyTools:executeSql:query')")
+    @Log(title = "SQL执行工具", businessType = BusinessType.SELECT, isSaveResponseData = false)
+    @PostMapping("/analyze")
+    public AjaxResult analyzeQuery(@RequestBody ExecuteSqlDTO request) {
+        ValidationResult validation = validate(request.getSqlContent(), "SELECT");
+        if (!validation.isValid()) {
+            return AjaxResult.error("SQL语句验证失败：" + validation.getMessage());
+        }
+        // 分析本身使用更长的超时时间,用于定位普通查询中超时的语句
+        return AjaxResult.success(sqlExecuteService.analyzeQuery(request.getDbDataSource(), request.getSqlContent()));
+    }
+
+    /**
+     * 查询SQL分析历史列表
+     */
+    @ApiOperation("查询SQL分析历史")
+    @PreAuthorize("@ss.hasPermi('dailyTools:executeSql:query')")
+    @GetMapping("/history/list")
+    public TableDataInfo historyList(ExecuteSqlHistory history) {
+        startPage();
+        List<ExecuteSqlHistory> list = sqlExecuteService.selectExecuteSqlHistoryList(history);
+        return getDataTable(list);
+    }
+
+    /**
+     * 获取SQL分析历史详情（含执行计划）
+     */
+    @ApiOperation("获取SQL分析历史详情")
+    @PreAuthorize("@ss.hasPermi('dailyTools:executeSql:query')")
+    @GetMapping("/history/{historyId}")
+    public AjaxResult historyInfo(@PathVariable Long historyId) {
+        return AjaxResult.success(sqlExecuteService.selectExecuteSqlHistoryById(historyId));
+    }
+
     /**
      * 更新操作
      *
@@ -12,12 +12,17 @@ import com.mes.system.service.IQueryInfoService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -44,12 +49,41 @@ public class QueryInfoController extends BaseController {
     @GetMapping("/list")
     public TableDataInfo list(QueryInfo queryInfo) {
         startPage();
-        List<QueryInfo> list = queryInfoService.selectQueryInfoList(queryInfo);
+        List<QueryInfo> list = queryInfoService.selectQueryInfoSummaryList(queryInfo);
         return getDataTable(list);
     }
 
+    /**
+     * 全文检索（标题、标签、类型、内容），按相关度排序
+     *
+     * @param queryInfo searchValue 为检索关键字
+     * @return
+     */
+    @ApiOperation("全文检索资料")
+    @PreAuthorize("@ss.hasPermi('dailyTools:queryInfo:list')")
+    @GetMapping("/search")
+    public TableDataInfo search(QueryInfo queryInfo) {
+        startPage();
+        List<QueryInfo> list = queryInfoService.selectQueryInfoSearch(queryInfo);
+        return getDataTable(list);
+    }
+
+    /**
+     * 标签分面统计（各标签下的资料数量）
+     *
+     * @param queryInfo 资料类型、状态过滤条件
+     * @return
+     */
+    @ApiOperation("标签分面统计")
+    @PreAuthorize("@ss.hasPermi('dailyTools:queryInfo:list')")
+    @GetMapping("/tagFacets")
+    public AjaxResult tagFacets(QueryInfo queryInfo) {
+        return success(queryInfoService.selectTagFacetList(queryInfo));
+    }
+
     /**
      * 获取详细信息
+     * 以资料的修改时间生成ETag，客户端携带 If-None-Match 且内容未修改时返回304，不再重复传输资料内容
      *
      * @param infoId
      * @return
@@ -57,10 +91,29 @@ public class QueryInfoController extends BaseController {
     @ApiOperation("获取资料详细信息")
     @PreAuthorize("@ss.hasPermi('dailyTools:queryInfo:query')")
     @GetMapping(value = "/{infoId}")
-    public AjaxResult getInfo(@PathVariable("infoId") Integer infoId) {
+    public AjaxResult getInfo(@PathVariable("infoId") Integer infoId, WebRequest webRequest, HttpServletResponse response) {
+        QueryInfo summary = queryInfoService.selectQueryInfoSummaryByInfoId(infoId);
+        if (summary == null) {
+            return success();
+        }
+        // 允许浏览器缓存但每次都需要校验
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (webRequest.checkNotModified(buildContentETag(summary))) {
+            queryInfoService.increaseSearchCount(infoId);
+            return null;
+        }
         return success(queryInfoService.selectQueryInfoByInfoId(infoId));
     }
 
+    /**
+     * 资料内容版本标识：资料ID + 最后修改时间（阅读次数写回不改变修改时间）
+     */
+    private String buildContentETag(QueryInfo info) {
+        Date version = info.getUpdateTime() != null ? info.getUpdateTime() : info.getCreateTime();
+        String source = info.getInfoId() + "-" + (version != null ? version.getTime() : 0);
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
     /**
      * 新增
      *
@@ -147,4 +200,26 @@ public class QueryInfoController extends BaseController {
         String message = queryInfoService.importQueryInfo(queryInfoList, updateSupport, operName);
         return success(message);
     }
+
+    /**
+     * 回填历史资料的全文检索纯文本（执行 query_info_fulltext.sql 升级后手动调用一次）
+     */
+    @ApiOperation("回填资料全文检索内容")
+    @PreAuthorize("@ss.hasRole('admin')")
+    @Log(title = "信息查询", businessType = BusinessType.OTHER)
+    @PostMapping("/maintain/backfillText")
+    public AjaxResult backfillText() {
+        return success(queryInfoService.backfillInfoText());
+    }
+
+    /**
+     * 将历史资料中的内联base64图片转存为附件（升级后手动调用一次）
+     */
+    @ApiOperation("转存资料内联图片")
+    @PreAuthorize("@ss.hasRole('admin')")
+    @Log(title = "信息查询", businessType = BusinessType.OTHER)
+    @PostMapping("/maintain/externalizeImages")
+    public AjaxResult externalizeImages() {
+        return success(queryInfoService.externalizeInlineImages());
+    }
 }
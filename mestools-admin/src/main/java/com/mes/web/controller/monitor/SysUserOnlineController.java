@@ -1,9 +1,8 @@
 package com.mes.web.controller.monitor;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,13 +13,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.mes.common.annotation.Log;
 import com.mes.common.constant.CacheConstants;
+import com.mes.common.constant.HttpStatus;
 import com.mes.common.core.controller.BaseController;
 import com.mes.common.core.domain.AjaxResult;
 import com.mes.common.core.domain.model.LoginUser;
+import com.mes.common.core.page.PageDomain;
 import com.mes.common.core.page.TableDataInfo;
+import com.mes.common.core.page.TableSupport;
 import com.mes.common.core.redis.RedisCache;
 import com.mes.common.enums.BusinessType;
 import com.mes.common.utils.StringUtils;
+import com.mes.framework.web.service.TokenService;
 import com.mes.system.domain.SysUserOnline;
 import com.mes.system.service.ISysUserOnlineService;
 
@@ -38,26 +41,84 @@ public class SysUserOnlineController extends BaseController {
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private TokenService tokenService;
+
     @PreAuthorize("@ss.hasPermi('monitor:online:list')")
     @GetMapping("/list")
     public TableDataInfo list(String ipaddr, String userName) {
-        Collection<String> keys = redisCache.keys(CacheConstants.LOGIN_TOKEN_KEY + "*");
+        // 从在线令牌索引读取，先清理已过期的令牌
+        redisCache.removeCacheZSetRangeByScore(CacheConstants.LOGIN_TOKEN_INDEX_KEY, 0, System.currentTimeMillis());
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        Integer pageNum = pageDomain.getPageNum();
+        Integer pageSize = pageDomain.getPageSize();
+        boolean paged = StringUtils.isNotNull(pageNum) && StringUtils.isNotNull(pageSize) && pageNum > 0 && pageSize > 0;
+        boolean filtered = StringUtils.isNotEmpty(ipaddr) || StringUtils.isNotEmpty(userName);
+        if (paged && !filtered) {
+            // 无筛选条件时只读取当前页的令牌，令牌索引按过期时间降序即最近活跃在前
+            long start = (long) (pageNum - 1) * pageSize;
+            Set<String> tokens = redisCache.getCacheZSetReverseRange(CacheConstants.LOGIN_TOKEN_INDEX_KEY, start, start + pageSize - 1);
+            List<SysUserOnline> rows = selectOnlineList(tokens, null, null);
+            return buildDataTable(rows, redisCache.getCacheZSetSize(CacheConstants.LOGIN_TOKEN_INDEX_KEY));
+        }
+        Set<String> tokens = redisCache.getCacheZSetReverseRange(CacheConstants.LOGIN_TOKEN_INDEX_KEY, 0, -1);
+        List<SysUserOnline> userOnlineList = selectOnlineList(tokens, ipaddr, userName);
+        int total = userOnlineList.size();
+        if (paged) {
+            int fromIndex = (int) Math.min((long) (pageNum - 1) * pageSize, total);
+            int toIndex = (int) Math.min((long) fromIndex + pageSize, total);
+            userOnlineList = userOnlineList.subList(fromIndex, toIndex);
+        }
+        return buildDataTable(userOnlineList, total);
+    }
+
+    /**
+     * 批量读取令牌对应的登录用户（一次 MGET）并按登录地址/用户名称筛选
+     *
+     * @param tokens   令牌集合
+     * @param ipaddr   登录地址
+     * @param userName 用户名称
+     * @return 在线用户列表
+     */
+    private List<SysUserOnline> selectOnlineList(Set<String> tokens, String ipaddr, String userName) {
         List<SysUserOnline> userOnlineList = new ArrayList<SysUserOnline>();
-        for (String key : keys) {
-            LoginUser user = redisCache.getCacheObject(key);
+        if (StringUtils.isEmpty(tokens)) {
+            return userOnlineList;
+        }
+        List<String> userKeys = new ArrayList<String>(tokens.size());
+        for (String token : tokens) {
+            userKeys.add(CacheConstants.LOGIN_TOKEN_KEY + token);
+        }
+        List<LoginUser> users = redisCache.multiGet(userKeys);
+        for (LoginUser user : users) {
+            if (StringUtils.isNull(user)) {
+                continue;
+            }
+            SysUserOnline userOnline;
             if (StringUtils.isNotEmpty(ipaddr) && StringUtils.isNotEmpty(userName)) {
-                userOnlineList.add(userOnlineService.selectOnlineByInfo(ipaddr, userName, user));
+                userOnline = userOnlineService.selectOnlineByInfo(ipaddr, userName, user);
             } else if (StringUtils.isNotEmpty(ipaddr)) {
-                userOnlineList.add(userOnlineService.selectOnlineByIpaddr(ipaddr, user));
-            } else if (StringUtils.isNotEmpty(userName) && StringUtils.isNotNull(user.getUser())) {
-                userOnlineList.add(userOnlineService.selectOnlineByUserName(userName, user));
+                userOnline = userOnlineService.selectOnlineByIpaddr(ipaddr, user);
+            } else if (StringUtils.isNotEmpty(userName)) {
+                userOnline = StringUtils.isNotNull(user.getUser()) ? userOnlineService.selectOnlineByUserName(userName, user) : null;
             } else {
-                userOnlineList.add(userOnlineService.loginUserToUserOnline(user));
+                userOnline = userOnlineService.loginUserToUserOnline(user);
+            }
+            if (StringUtils.isNotNull(userOnline)) {
+                userOnlineList.add(userOnline);
             }
         }
-        Collections.reverse(userOnlineList);
-        userOnlineList.removeAll(Collections.singleton(null));
-        return getDataTable(userOnlineList);
+        return userOnlineList;
+    }
+
+    /**
+     * 组装分页数据
+     */
+    private TableDataInfo buildDataTable(List<SysUserOnline> rows, long total) {
+        TableDataInfo rspData = new TableDataInfo(rows, total);
+        rspData.setCode(HttpStatus.SUCCESS);
+        rspData.setMsg("查询成功");
+        return rspData;
     }
 
     /**
@@ -67,7 +128,7 @@ public class SysUserOnlineController extends BaseController {
     @Log(title = "在线用户", businessType = BusinessType.FORCE)
     @DeleteMapping("/{tokenId}")
     public AjaxResult forceLogout(@PathVariable String tokenId) {
-        redisCache.deleteObject(CacheConstants.LOGIN_TOKEN_KEY + tokenId);
+        tokenService.delLoginUser(tokenId);
         return success();
     }
 }
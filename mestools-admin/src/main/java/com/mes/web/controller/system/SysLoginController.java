@@ -15,7 +15,6 @@ import com.mes.common.core.domain.entity.SysMenu;
 import com.mes.common.core.domain.entity.SysUser;
 import com.mes.common.core.domain.model.LoginBody;
 import com.mes.common.core.domain.model.LoginUser;
-import com.mes.common.core.text.Convert;
 import com.mes.common.utils.DateUtils;
 import com.mes.common.utils.SecurityUtils;
 import com.mes.common.utils.StringUtils;
@@ -103,14 +102,14 @@ public class SysLoginController {
 
     // 检查初始密码是否提醒修改
     public boolean initPasswordIsModify(Date pwdUpdateDate) {
-        Integer initPasswordModify = Convert.toInt(configService.selectConfigByKey("sys.account.initPasswordModify"));
-        return initPasswordModify != null && initPasswordModify == 1 && pwdUpdateDate == null;
+        int initPasswordModify = configService.selectConfigInt("sys.account.initPasswordModify", 0);
+        return initPasswordModify == 1 && pwdUpdateDate == null;
     }
 
     // 检查密码是否过期
     public boolean passwordIsExpiration(Date pwdUpdateDate) {
-        Integer passwordValidateDays = Convert.toInt(configService.selectConfigByKey("sys.account.passwordValidateDays"));
-        if (passwordValidateDays != null && passwordValidateDays > 0) {
+        int passwordValidateDays = configService.selectConfigInt("sys.account.passwordValidateDays", 0);
+        if (passwordValidateDays > 0) {
             if (StringUtils.isNull(pwdUpdateDate)) {
                 // 如果从未修改过初始密码，直接提醒过期
                 return true;
@@ -20,6 +20,7 @@ import com.mes.common.core.domain.AjaxResult;
 import com.mes.common.core.domain.entity.SysMenu;
 import com.mes.common.enums.BusinessType;
 import com.mes.common.utils.StringUtils;
+import com.mes.framework.web.service.RolePermissionIndex;
 import com.mes.system.service.ISysMenuService;
 
 /**
@@ -33,6 +34,9 @@ public class SysMenuController extends BaseController {
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     /**
      * 获取菜单列表
      */
@@ -104,7 +108,12 @@ public class SysMenuController extends BaseController {
             return error("修改菜单'" + menu.getMenuName() + "'失败，上级菜单不能选择自己");
         }
         menu.setUpdateBy(getUsername());
-        return toAjax(menuService.updateMenu(menu));
+        int rows = menuService.updateMenu(menu);
+        if (rows > 0) {
+            // 菜单权限标识可能变更，清除全部角色权限索引
+            rolePermissionIndex.invalidateAll();
+        }
+        return toAjax(rows);
     }
 
     /**
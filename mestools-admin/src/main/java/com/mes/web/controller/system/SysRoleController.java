@@ -25,6 +25,7 @@ import com.mes.common.core.page.TableDataInfo;
 import com.mes.common.enums.BusinessType;
 import com.mes.common.utils.StringUtils;
 import com.mes.common.utils.poi.ExcelUtil;
+import com.mes.framework.web.service.RolePermissionIndex;
 import com.mes.framework.web.service.SysPermissionService;
 import com.mes.framework.web.service.TokenService;
 import com.mes.system.domain.SysUserRole;
@@ -46,6 +47,9 @@ public class SysRoleController extends BaseController {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     @Autowired
     private SysPermissionService permissionService;
 
@@ -116,6 +120,8 @@ public class SysRoleController extends BaseController {
         role.setUpdateBy(getUsername());
 
         if (roleService.updateRole(role) > 0) {
+            // 清除角色权限索引，已登录用户的权限校验随之生效
+            rolePermissionIndex.invalidateRoles(role.getRoleId());
             // 更新缓存用户权限
             LoginUser loginUser = getLoginUser();
             if (StringUtils.isNotNull(loginUser.getUser()) && !loginUser.getUser().isAdmin()) {
@@ -150,7 +156,11 @@ public class SysRoleController extends BaseController {
         roleService.checkRoleAllowed(role);
         roleService.checkRoleDataScope(role.getRoleId());
         role.setUpdateBy(getUsername());
-        return toAjax(roleService.updateRoleStatus(role));
+        int rows = roleService.updateRoleStatus(role);
+        if (rows > 0) {
+            rolePermissionIndex.invalidateRoles(role.getRoleId());
+        }
+        return toAjax(rows);
     }
 
     /**
@@ -160,7 +170,11 @@ public class SysRoleController extends BaseController {
     @Log(title = "角色管理", businessType = BusinessType.DELETE)
     @DeleteMapping("/{roleIds}")
     public AjaxResult remove(@PathVariable Long[] roleIds) {
-        return toAjax(roleService.deleteRoleByIds(roleIds));
+        int rows = roleService.deleteRoleByIds(roleIds);
+        if (rows > 0) {
+            rolePermissionIndex.invalidateRoles(roleIds);
+        }
+        return toAjax(rows);
     }
 
     /**
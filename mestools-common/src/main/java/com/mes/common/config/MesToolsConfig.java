@@ -81,6 +81,13 @@ public class MesToolsConfig {
         return getProfile() + "/download/";
     }
 
+    /**
+     * 获取附件存储路径（按内容SHA-256寻址）
+     */
+    public static String getAttachmentPath() {
+        return getProfile() + "/attachment";
+    }
+
     /**
      * 获取上传路径
      */
@@ -11,6 +11,11 @@ public class CacheConstants {
      */
     public static final String LOGIN_TOKEN_KEY = "login_tokens:";
 
+    /**
+     * 在线令牌索引 redis key（有序集合，成员为令牌uuid，分值为过期时间戳）
+     */
+    public static final String LOGIN_TOKEN_INDEX_KEY = "login_tokens_index";
+
     /**
      * 验证码 redis key
      */
@@ -40,4 +45,34 @@ public class CacheConstants {
      * 登录账户密码错误次数 redis key
      */
     public static final String PWD_ERR_CNT_KEY = "pwd_err_cnt:";
+
+    /**
+     * 登录用户变更通知频道（退出、强退、权限变更时通知各节点清除本地缓存）
+     */
+    public static final String LOGIN_TOKEN_TOPIC = "topic:login_tokens";
+
+    /**
+     * 字典变更通知频道（字典数据变更时通知各节点清除本地字典缓存）
+     */
+    public static final String SYS_DICT_TOPIC = "topic:sys_dict";
+
+    /**
+     * 参数变更通知频道（参数配置变更时通知各节点清除本地参数缓存）
+     */
+    public static final String SYS_CONFIG_TOPIC = "topic:sys_config";
+
+    /**
+     * 角色权限变更通知频道（角色或菜单权限变更时通知各节点清除本地角色权限索引）
+     */
+    public static final String ROLE_PERMISSION_TOPIC = "topic:role_permission";
+
+    /**
+     * 角色权限包 redis key
+     */
+    public static final String ROLE_PERMISSION_KEY = "role_permission:";
+
+    /**
+     * 角色权限版本号 redis key（Hash，角色ID -> 版本号，"*" -> 全局版本号）
+     */
+    public static final String ROLE_PERMISSION_VERSION_KEY = "role_permission_version";
 }
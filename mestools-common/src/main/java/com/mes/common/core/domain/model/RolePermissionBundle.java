@@ -0,0 +1,72 @@
+package com.mes.common.core.domain.model;
+
+import java.util.Set;
+
+/**
+ * 角色权限包（缓存在Redis中，各节点共享）
+ *
+ * @author weiyiming
+ */
+public class RolePermissionBundle {
+    /**
+     * 角色ID
+     */
+    private Long roleId;
+
+    /**
+     * 生成时的角色权限版本号，与当前版本号不一致时视为过期
+     */
+    private long version;
+
+    /**
+     * 生成时的全局权限版本号（菜单变更时递增），与当前版本号不一致时视为过期
+     */
+    private long globalVersion;
+
+    /**
+     * 权限字符串集合
+     */
+    private Set<String> permissions;
+
+    public RolePermissionBundle() {
+    }
+
+    public RolePermissionBundle(Long roleId, long version, long globalVersion, Set<String> permissions) {
+        this.roleId = roleId;
+        this.version = version;
+        this.globalVersion = globalVersion;
+        this.permissions = permissions;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    public void setRoleId(Long roleId) {
+        this.roleId = roleId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getGlobalVersion() {
+        return globalVersion;
+    }
+
+    public void setGlobalVersion(long globalVersion) {
+        this.globalVersion = globalVersion;
+    }
+
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    public void setPermissions(Set<String> permissions) {
+        this.permissions = permissions;
+    }
+}
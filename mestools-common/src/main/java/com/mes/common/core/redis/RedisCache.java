@@ -1,17 +1,31 @@
 package com.mes.common.core.redis;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.RedisSystemException;
 import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
 /**
@@ -22,9 +36,22 @@ import org.springframework.stereotype.Component;
 @SuppressWarnings(value = {"unchecked", "rawtypes"})
 @Component
 public class RedisCache {
+    /**
+     * SCAN 每批返回的建议条数
+     */
+    private static final long SCAN_COUNT = 1000;
+
+    /**
+     * 管道批量操作时每批的命令条数
+     */
+    private static final int PIPELINE_BATCH_SIZE = 1000;
+
     @Autowired
     public RedisTemplate redisTemplate;
 
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
     /**
      * 缓存基本的对象，Integer、String、实体类等
      *
@@ -120,6 +147,80 @@ public class RedisCache {
         return redisTemplate.delete(collection) > 0;
     }
 
+    /**
+     * 批量获得缓存的基本对象（MGET，一次往返）
+     *
+     * @param keys 缓存键值集合
+     * @return 与键顺序一致的缓存值列表，不存在的键对应 null
+     */
+    public <T> List<T> multiGet(final Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> values = redisTemplate.opsForValue().multiGet(keys);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * 通过管道批量缓存基本对象
+     *
+     * @param dataMap  键值对
+     * @param timeout  时间
+     * @param timeUnit 时间颗粒度
+     */
+    public <T> void setCacheObjects(final Map<String, T> dataMap, final long timeout, final TimeUnit timeUnit) {
+        if (dataMap == null || dataMap.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, T>> entries = new ArrayList<>(dataMap.entrySet());
+        for (int from = 0; from < entries.size(); from += PIPELINE_BATCH_SIZE) {
+            List<Map.Entry<String, T>> batch = entries.subList(from, Math.min(from + PIPELINE_BATCH_SIZE, entries.size()));
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public Object execute(RedisOperations operations) {
+                    ValueOperations operation = operations.opsForValue();
+                    for (Map.Entry<String, T> entry : batch) {
+                        operation.set(entry.getKey(), entry.getValue(), timeout, timeUnit);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * 通过管道批量删除对象（逐键 DEL，避免单条超大 DEL 长时间阻塞 Redis）
+     *
+     * @param keys 缓存键值集合
+     * @return 删除的键数量
+     */
+    public long deleteObjects(final Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        long count = 0;
+        for (int from = 0; from < keyList.size(); from += PIPELINE_BATCH_SIZE) {
+            List<String> batch = keyList.subList(from, Math.min(from + PIPELINE_BATCH_SIZE, keyList.size()));
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public Object execute(RedisOperations operations) {
+                    for (String key : batch) {
+                        operations.delete(key);
+                    }
+                    return null;
+                }
+            });
+            // 管道中的 DEL 返回删除的键数（Long），而非 Boolean
+            for (Object result : results) {
+                if (result instanceof Long && (Long) result > 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * 缓存List数据
      *
@@ -213,6 +314,19 @@ public class RedisCache {
         return opsForHash.get(key, hKey);
     }
 
+    /**
+     * Hash中的数值递增
+     *
+     * @param key   Redis键
+     * @param hKey  Hash键
+     * @param delta 增量
+     * @return 递增后的值
+     */
+    public long incrementCacheMapValue(final String key, final String hKey, final long delta) {
+        Long value = redisTemplate.opsForHash().increment(key, hKey, delta);
+        return value == null ? 0 : value;
+    }
+
     /**
      * 获取多个Hash中的数据
      *
@@ -236,12 +350,125 @@ public class RedisCache {
     }
 
     /**
-     * 获得缓存的基本对象列表
+     * 有序集合中添加或更新成员
+     *
+     * @param key   Redis键
+     * @param value 成员
+     * @param score 分值
+     */
+    public <T> void addCacheZSetValue(final String key, final T value, final double score) {
+        redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    /**
+     * 获得有序集合的全部成员（按分值升序）
+     *
+     * @param key Redis键
+     * @return 成员集合
+     */
+    public <T> Set<T> getCacheZSet(final String key) {
+        return redisTemplate.opsForZSet().range(key, 0, -1);
+    }
+
+    /**
+     * 获得有序集合指定区间的成员（按分值降序）
+     *
+     * @param key   Redis键
+     * @param start 开始下标
+     * @param end   结束下标，-1 表示末尾
+     * @return 成员集合
+     */
+    public <T> Set<T> getCacheZSetReverseRange(final String key, final long start, final long end) {
+        return redisTemplate.opsForZSet().reverseRange(key, start, end);
+    }
+
+    /**
+     * 获得有序集合的成员数
+     *
+     * @param key Redis键
+     * @return 成员数
+     */
+    public long getCacheZSetSize(final String key) {
+        Long size = redisTemplate.opsForZSet().zCard(key);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * 删除有序集合中分值在范围内的成员
+     *
+     * @param key Redis键
+     * @param min 最小分值
+     * @param max 最大分值
+     * @return 删除的成员数
+     */
+    public long removeCacheZSetRangeByScore(final String key, final double min, final double max) {
+        Long count = redisTemplate.opsForZSet().removeRangeByScore(key, min, max);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 删除有序集合中的成员
+     *
+     * @param key    Redis键
+     * @param values 成员
+     * @return 是否成功
+     */
+    public boolean deleteCacheZSetValue(final String key, final Object... values) {
+        Long count = redisTemplate.opsForZSet().remove(key, values);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 获得缓存的基本对象列表（基于 SCAN 游标分批遍历，不会像 KEYS 一样阻塞 Redis）
      *
      * @param pattern 字符串前缀
      * @return 对象列表
      */
     public Collection<String> keys(final String pattern) {
-        return redisTemplate.keys(pattern);
+        return scan(pattern);
+    }
+
+    /**
+     * 使用 SCAN 游标遍历匹配的键
+     *
+     * @param pattern 匹配模式
+     * @return 键集合
+     */
+    public Set<String> scan(final String pattern) {
+        Set<String> keys = new HashSet<>();
+        RedisSerializer<String> keySerializer = redisTemplate.getKeySerializer();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(keySerializer.deserialize(cursor.next()));
+                }
+            } catch (IOException e) {
+                throw new RedisSystemException("关闭SCAN游标失败", e);
+            }
+            return null;
+        });
+        return keys;
+    }
+
+    /**
+     * 发布消息
+     *
+     * @param channel 频道
+     * @param message 消息内容
+     */
+    public void publish(final String channel, final Object message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 订阅频道，消息按值序列化方式反序列化后交给回调处理
+     *
+     * @param channel  频道
+     * @param consumer 消息处理
+     */
+    public <T> void subscribe(final String channel, final Consumer<T> consumer) {
+        redisMessageListenerContainer.addMessageListener((message, pattern) ->
+                consumer.accept((T) redisTemplate.getValueSerializer().deserialize(message.getBody())), new ChannelTopic(channel));
     }
 }
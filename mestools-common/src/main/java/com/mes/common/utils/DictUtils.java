@@ -1,9 +1,14 @@
 package com.mes.common.utils;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.fastjson2.JSONArray;
 import com.mes.common.constant.CacheConstants;
@@ -22,6 +27,26 @@ public class DictUtils {
      */
     public static final String SEPARATOR = ",";
 
+    /**
+     * 清空全部本地字典缓存的通知内容
+     */
+    public static final String CLEAR_ALL = "*";
+
+    /**
+     * 本地字典缓存有效期（兜底丢失的变更通知）
+     */
+    private static final long LOCAL_CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 本地字典缓存 字典类型 -> 字典条目
+     */
+    private static final Map<String, LocalDict> LOCAL_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 本地字典缓存版本号，每次失效时递增，防止失效前读取的旧数据在失效后写回
+     */
+    private static final AtomicLong LOCAL_VERSION = new AtomicLong();
+
     /**
      * 设置字典缓存
      *
@@ -29,19 +54,105 @@ public class DictUtils {
      * @param dictDatas 字典数据列表
      */
     public static void setDictCache(String key, List<SysDictData> dictDatas) {
-        SpringUtils.getBean(RedisCache.class).setCacheObject(getCacheKey(key), dictDatas);
+        RedisCache redisCache = SpringUtils.getBean(RedisCache.class);
+        redisCache.setCacheObject(getCacheKey(key), dictDatas);
+        removeLocalDictCache(key);
+        redisCache.publish(CacheConstants.SYS_DICT_TOPIC, key);
     }
 
     /**
      * 获取字典缓存
      *
      * @param key 参数键
-     * @return dictDatas 字典数据列表
+     * @return dictDatas 字典数据列表（只读）
      */
     public static List<SysDictData> getDictCache(String key) {
-        JSONArray arrayCache = SpringUtils.getBean(RedisCache.class).getCacheObject(getCacheKey(key));
-        if (StringUtils.isNotNull(arrayCache)) {
-            return arrayCache.toList(SysDictData.class);
+        return getLocalDict(key).datas;
+    }
+
+    /**
+     * 清除本地字典缓存（收到字典变更通知时调用）
+     *
+     * @param key 字典类型，CLEAR_ALL 表示全部
+     */
+    public static void removeLocalDictCache(String key) {
+        LOCAL_VERSION.incrementAndGet();
+        if (CLEAR_ALL.equals(key)) {
+            LOCAL_CACHE.clear();
+        } else if (StringUtils.isNotNull(key)) {
+            LOCAL_CACHE.remove(key);
+        }
+    }
+
+    /**
+     * 获取本地字典条目，不存在或过期时从Redis加载
+     *
+     * @param key 字典类型
+     * @return 字典条目
+     */
+    private static LocalDict getLocalDict(String key) {
+        LocalDict dict = LOCAL_CACHE.get(key);
+        long now = System.currentTimeMillis();
+        if (dict != null && dict.expireTime > now) {
+            return dict;
+        }
+        long version = LOCAL_VERSION.get();
+        dict = new LocalDict(loadDictCache(key), now + LOCAL_CACHE_TTL);
+        // 加载期间发生过失效则不写回，下次读取重新加载
+        if (version == LOCAL_VERSION.get()) {
+            LOCAL_CACHE.put(key, dict);
+        }
+        return dict;
+    }
+
+    /**
+     * 从Redis读取字典数据
+     *
+     * @param key 字典类型
+     * @return 字典数据列表
+     */
+    private static List<SysDictData> loadDictCache(String key) {
+        return toDictDatas(SpringUtils.getBean(RedisCache.class).getCacheObject(getCacheKey(key)));
+    }
+
+    /**
+     * 预热本地字典缓存（一次 MGET 批量读取）
+     *
+     * @param dictTypes 字典类型集合
+     */
+    public static void warmUpDictCache(Collection<String> dictTypes) {
+        if (StringUtils.isEmpty(dictTypes)) {
+            return;
+        }
+        List<String> types = new ArrayList<>(dictTypes);
+        List<String> keys = new ArrayList<>(types.size());
+        for (String dictType : types) {
+            keys.add(getCacheKey(dictType));
+        }
+        long version = LOCAL_VERSION.get();
+        List<Object> caches = SpringUtils.getBean(RedisCache.class).multiGet(keys);
+        long expireTime = System.currentTimeMillis() + LOCAL_CACHE_TTL;
+        Map<String, LocalDict> dicts = new HashMap<>(types.size() * 2);
+        for (int i = 0; i < types.size() && i < caches.size(); i++) {
+            dicts.put(types.get(i), new LocalDict(toDictDatas(caches.get(i)), expireTime));
+        }
+        if (version == LOCAL_VERSION.get()) {
+            LOCAL_CACHE.putAll(dicts);
+        }
+    }
+
+    /**
+     * 转换Redis中的字典缓存值（兼容 JSON 与 JSONB 序列化格式）
+     *
+     * @param cache 缓存值
+     * @return 字典数据列表
+     */
+    private static List<SysDictData> toDictDatas(Object cache) {
+        if (cache instanceof JSONArray) {
+            return ((JSONArray) cache).toList(SysDictData.class);
+        }
+        if (cache instanceof Collection) {
+            return new JSONArray((Collection<?>) cache).toList(SysDictData.class);
         }
         return null;
     }
@@ -83,11 +194,11 @@ public class DictUtils {
      * @return 字典标签
      */
     public static String getDictLabel(String dictType, String dictValue, String separator) {
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas) || StringUtils.isEmpty(dictValue)) {
+        LocalDict dict = getLocalDict(dictType);
+        if (StringUtils.isNull(dict.datas) || StringUtils.isEmpty(dictValue)) {
             return StringUtils.EMPTY;
         }
-        Map<String, String> dictMap = datas.stream().collect(HashMap::new, (map, dict) -> map.put(dict.getDictValue(), dict.getDictLabel()), Map::putAll);
+        Map<String, String> dictMap = dict.valueToLabel;
         if (!StringUtils.contains(dictValue, separator)) {
             return dictMap.getOrDefault(dictValue, StringUtils.EMPTY);
         }
@@ -109,11 +220,11 @@ public class DictUtils {
      * @return 字典值
      */
     public static String getDictValue(String dictType, String dictLabel, String separator) {
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas) || StringUtils.isEmpty(dictLabel)) {
+        LocalDict dict = getLocalDict(dictType);
+        if (StringUtils.isNull(dict.datas) || StringUtils.isEmpty(dictLabel)) {
             return StringUtils.EMPTY;
         }
-        Map<String, String> dictMap = datas.stream().collect(HashMap::new, (map, dict) -> map.put(dict.getDictLabel(), dict.getDictValue()), Map::putAll);
+        Map<String, String> dictMap = dict.labelToValue;
         if (!StringUtils.contains(dictLabel, separator)) {
             return dictMap.getOrDefault(dictLabel, StringUtils.EMPTY);
         }
@@ -126,6 +237,20 @@ public class DictUtils {
         return StringUtils.removeEnd(valueBuilder.toString(), separator);
     }
 
+    /**
+     * 根据字典类型和字典标签精确查找字典值（本地缓存哈希查找，不拆分分隔符）
+     *
+     * @param dictType  字典类型
+     * @param dictLabel 字典标签
+     * @return 字典值，不存在时返回 null
+     */
+    public static String getDictValueByLabel(String dictType, String dictLabel) {
+        if (StringUtils.isEmpty(dictLabel)) {
+            return null;
+        }
+        return getLocalDict(dictType).labelToValue.get(dictLabel);
+    }
+
     /**
      * 根据字典类型获取字典所有值
      *
@@ -168,15 +293,21 @@ public class DictUtils {
      * @param key 字典键
      */
     public static void removeDictCache(String key) {
-        SpringUtils.getBean(RedisCache.class).deleteObject(getCacheKey(key));
+        RedisCache redisCache = SpringUtils.getBean(RedisCache.class);
+        redisCache.deleteObject(getCacheKey(key));
+        removeLocalDictCache(key);
+        redisCache.publish(CacheConstants.SYS_DICT_TOPIC, key);
     }
 
     /**
      * 清空字典缓存
      */
     public static void clearDictCache() {
-        Collection<String> keys = SpringUtils.getBean(RedisCache.class).keys(CacheConstants.SYS_DICT_KEY + "*");
-        SpringUtils.getBean(RedisCache.class).deleteObject(keys);
+        RedisCache redisCache = SpringUtils.getBean(RedisCache.class);
+        Collection<String> keys = redisCache.keys(CacheConstants.SYS_DICT_KEY + "*");
+        redisCache.deleteObjects(keys);
+        removeLocalDictCache(CLEAR_ALL);
+        redisCache.publish(CacheConstants.SYS_DICT_TOPIC, CLEAR_ALL);
     }
 
     /**
@@ -188,4 +319,48 @@ public class DictUtils {
     public static String getCacheKey(String configKey) {
         return CacheConstants.SYS_DICT_KEY + configKey;
     }
+
+    /**
+     * 本地字典条目，创建后不可变
+     */
+    private static class LocalDict {
+        /**
+         * 字典数据列表
+         */
+        private final List<SysDictData> datas;
+
+        /**
+         * 字典值 -> 字典标签
+         */
+        private final Map<String, String> valueToLabel;
+
+        /**
+         * 字典标签 -> 字典值
+         */
+        private final Map<String, String> labelToValue;
+
+        /**
+         * 过期时间
+         */
+        private final long expireTime;
+
+        LocalDict(List<SysDictData> datas, long expireTime) {
+            this.expireTime = expireTime;
+            if (datas == null) {
+                this.datas = null;
+                this.valueToLabel = Collections.emptyMap();
+                this.labelToValue = Collections.emptyMap();
+                return;
+            }
+            Map<String, String> valueToLabel = new HashMap<>(datas.size() * 2);
+            Map<String, String> labelToValue = new HashMap<>(datas.size() * 2);
+            for (SysDictData data : datas) {
+                valueToLabel.put(data.getDictValue(), data.getDictLabel());
+                labelToValue.put(data.getDictLabel(), data.getDictValue());
+            }
+            this.datas = Collections.unmodifiableList(datas);
+            this.valueToLabel = Collections.unmodifiableMap(valueToLabel);
+            this.labelToValue = Collections.unmodifiableMap(labelToValue);
+        }
+    }
 }
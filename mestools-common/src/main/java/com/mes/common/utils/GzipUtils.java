@@ -0,0 +1,63 @@
+package com.mes.common.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.IOUtils;
+import com.mes.common.exception.UtilException;
+
+/**
+ * 文本 GZIP 压缩工具
+ * 文本按 UTF-16LE 编码后压缩，与 SQL Server COMPRESS(nvarchar) 结果格式一致，
+ * 数据库中可直接用 CAST(DECOMPRESS(col) AS NVARCHAR(MAX)) 查看
+ *
+ * @author weiyiming
+ */
+public class GzipUtils {
+    private static final Charset CHARSET = StandardCharsets.UTF_16LE;
+
+    private GzipUtils() {
+    }
+
+    /**
+     * 压缩文本
+     *
+     * @param text 文本
+     * @return GZIP 字节，文本为空时返回 null
+     */
+    public static byte[] compress(String text) {
+        if (StringUtils.isEmpty(text)) {
+            return null;
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(bos)) {
+            gzip.write(text.getBytes(CHARSET));
+        } catch (IOException e) {
+            throw new UtilException("压缩失败", e);
+        }
+        return bos.toByteArray();
+    }
+
+    /**
+     * 解压文本
+     *
+     * @param bytes GZIP 字节
+     * @return 文本，字节为空时返回 null
+     */
+    public static String decompress(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(IOUtils.toByteArray(gzip), CHARSET);
+        } catch (IOException e) {
+            throw new UtilException("解压失败", e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mes.common.utils.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.mes.common.config.MesToolsConfig;
+import com.mes.common.utils.StringUtils;
+
+/**
+ * 内容寻址附件存储工具类
+ * 文件以内容的SHA-256命名，相同内容只保存一份，文件内容不可变，可长期缓存
+ *
+ * @author weiyiming
+ */
+public class AttachmentUtils {
+    private static final Logger log = LoggerFactory.getLogger(AttachmentUtils.class);
+
+    /**
+     * 富文本中的内联base64图片，仅处理位图格式（svg可能包含脚本，保持内联）
+     */
+    private static final Pattern INLINE_IMAGE_PATTERN = Pattern.compile(
+            "(src\\s*=\\s*[\"'])data:image/(png|jpe?g|gif|bmp|webp);base64,([A-Za-z0-9+/=\\s]+)([\"'])",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * 保存附件，内容已存在时直接返回已有文件的访问路径
+     *
+     * @param data      文件内容
+     * @param extension 文件扩展名
+     * @return 访问路径，如 /profile/attachment/ab/ab12...ef.png
+     * @throws IOException IO异常
+     */
+    public static String store(byte[] data, String extension) throws IOException {
+        String hash = sha256Hex(data);
+        String fileName = hash.substring(0, 2) + "/" + hash + "." + extension.toLowerCase();
+        String uploadDir = MesToolsConfig.getAttachmentPath();
+        File target = new File(uploadDir + File.separator + fileName);
+        if (!target.exists()) {
+            Path targetPath = target.toPath();
+            Files.createDirectories(targetPath.getParent());
+            // 先写临时文件再原子移动，避免并发写入同一内容时读到不完整的文件
+            Path tempPath = Files.createTempFile(targetPath.getParent(), hash, ".tmp");
+            try {
+                Files.write(tempPath, data);
+                Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // 其他线程已写入相同内容时忽略
+                if (!target.exists()) {
+                    throw e;
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        }
+        return FileUploadUtils.getPathFileName(uploadDir, fileName);
+    }
+
+    /**
+     * 将富文本中的内联base64图片保存为附件，并替换为附件访问路径
+     * 单张图片保存失败时保留原内联内容
+     *
+     * @param html 富文本内容
+     * @return 替换后的富文本内容
+     */
+    public static String externalizeInlineImages(String html) {
+        if (StringUtils.isEmpty(html) || !html.contains("base64,")) {
+            return html;
+        }
+        Matcher matcher = INLINE_IMAGE_PATTERN.matcher(html);
+        StringBuffer sb = new StringBuffer(html.length() / 4);
+        while (matcher.find()) {
+            String replacement = matcher.group();
+            try {
+                byte[] data = Base64.getMimeDecoder().decode(matcher.group(3));
+                String extension = matcher.group(2).toLowerCase().replace("jpeg", "jpg");
+                replacement = matcher.group(1) + store(data, extension) + matcher.group(4);
+            } catch (Exception e) {
+                log.warn("内联图片保存失败，保留原内容: {}", e.getMessage());
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 判断富文本中是否包含可转存的内联图片
+     *
+     * @param html 富文本内容
+     * @return 结果
+     */
+    public static boolean hasInlineImages(String html) {
+        return StringUtils.isNotEmpty(html) && html.contains("base64,") && INLINE_IMAGE_PATTERN.matcher(html).find();
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
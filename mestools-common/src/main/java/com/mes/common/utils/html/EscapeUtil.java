@@ -2,6 +2,8 @@ package com.mes.common.utils.html;
 
 import com.mes.common.utils.StringUtils;
 
+import java.util.regex.Pattern;
+
 /**
  * 转义和反转义工具类
  *
@@ -12,6 +14,12 @@ public class EscapeUtil {
 
     private static final char[][] TEXT = new char[64][];
 
+    private static final Pattern SCRIPT_STYLE_PATTERN = Pattern.compile("<(script|style)[^>]*?>[\\s\\S]*?</\\1\\s*>", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern HTML_MARK_PATTERN = Pattern.compile(RE_HTML_MARK);
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
     static {
         for (int i = 0; i < 64; i++) {
             TEXT[i] = new char[]{(char) i};
@@ -55,6 +63,23 @@ public class EscapeUtil {
         return new HTMLFilter().filter(content);
     }
 
+    /**
+     * 将富文本HTML转换为纯文本：去除脚本/样式块及所有标签（含内联图片），还原常用实体并合并空白
+     *
+     * @param html 富文本内容
+     * @return 纯文本
+     */
+    public static String toPlainText(String html) {
+        if (StringUtils.isEmpty(html)) {
+            return StringUtils.EMPTY;
+        }
+        String text = SCRIPT_STYLE_PATTERN.matcher(html).replaceAll(" ");
+        text = HTML_MARK_PATTERN.matcher(text).replaceAll(" ");
+        text = text.replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&quot;", "\"").replace("&#39;", "'").replace("&amp;", "&");
+        return WHITESPACE_PATTERN.matcher(text).replaceAll(" ").trim();
+    }
+
     /**
      * Escape编码
      *
@@ -0,0 +1,145 @@
+package com.mes.framework.config;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONWriter;
+
+/**
+ * Redis使用FastJson JSONB二进制序列化
+ * <p>
+ * 二进制值以 [魔数, 版本] 两字节头开头，版本区分是否压缩；没有该头的值按原 JSON 文本格式读取，
+ * 因此可以先全部节点升级（仍写 JSON），再切换为写 JSONB，实现滚动迁移。
+ * 字符串、数字等标量仍写 JSON 文本，保证限流 Lua 脚本等直接读取值的场景不受影响。
+ *
+ * @author weiyiming
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+    /**
+     * 二进制格式魔数（0xC1 在 UTF-8 中不可能出现，不会与 JSON 文本冲突）
+     */
+    static final byte MAGIC = (byte) 0xC1;
+
+    /**
+     * JSONB 未压缩
+     */
+    static final byte VERSION_JSONB = 1;
+
+    /**
+     * JSONB 经 Deflate 压缩
+     */
+    static final byte VERSION_JSONB_DEFLATE = 2;
+
+    private final Class<T> clazz;
+
+    private final FastJson2JsonRedisSerializer<T> jsonSerializer;
+
+    /**
+     * 是否写入二进制格式，false 时只写 JSON 文本（读取始终兼容两种格式）
+     */
+    private final boolean writeBinary;
+
+    /**
+     * 超过该字节数的值压缩存储，0 表示不压缩
+     */
+    private final int compressThreshold;
+
+    public CompactRedisSerializer(Class<T> clazz, boolean writeBinary, int compressThreshold) {
+        this.clazz = clazz;
+        this.jsonSerializer = new FastJson2JsonRedisSerializer<>(clazz);
+        this.writeBinary = writeBinary;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(T t) throws SerializationException {
+        if (t == null) {
+            return new byte[0];
+        }
+        if (!writeBinary || isScalar(t)) {
+            return jsonSerializer.serialize(t);
+        }
+        byte[] body = JSONB.toBytes(t, JSONWriter.Feature.WriteClassName);
+        if (compressThreshold > 0 && body.length > compressThreshold) {
+            return withHeader(VERSION_JSONB_DEFLATE, deflate(body));
+        }
+        return withHeader(VERSION_JSONB, body);
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length <= 0) {
+            return null;
+        }
+        if (bytes.length < 2 || bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        byte[] body = Arrays.copyOfRange(bytes, 2, bytes.length);
+        switch (bytes[1]) {
+            case VERSION_JSONB:
+                break;
+            case VERSION_JSONB_DEFLATE:
+                body = inflate(body);
+                break;
+            default:
+                throw new SerializationException("不支持的Redis值格式版本: " + bytes[1]);
+        }
+        return JSONB.parseObject(body, clazz, FastJson2JsonRedisSerializer.AUTO_TYPE_FILTER);
+    }
+
+    private static boolean isScalar(Object t) {
+        return t instanceof CharSequence || t instanceof Number || t instanceof Boolean || t instanceof Character;
+    }
+
+    private static byte[] withHeader(byte version, byte[] body) {
+        byte[] bytes = new byte[body.length + 2];
+        bytes[0] = MAGIC;
+        bytes[1] = version;
+        System.arraycopy(body, 0, bytes, 2, body.length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                bos.write(buffer, 0, count);
+            }
+            return bos.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Redis值解压失败: 数据不完整");
+                }
+                bos.write(buffer, 0, count);
+            }
+            return bos.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Redis值解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mes.framework.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import com.mes.framework.config.properties.HttpClientProperties;
+
+/**
+ * HTTP 客户端配置 用于后端发送 HTTP 请求（如代理接口请求）
+ * 使用连接池复用 TCP/TLS 连接，避免每次请求重新握手
+ *
+ * @author weiyiming
+ */
+@Configuration
+public class HttpClientConfig {
+    @Autowired
+    private HttpClientProperties properties;
+
+    /**
+     * 连接池
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(properties.getValidateAfterInactivity());
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                // 代理请求来自不同用户，不能共享 Cookie
+                .disableCookieManagement()
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleTimeout(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 非阻塞连接池，由少量 IO 线程驱动，等待下游响应时不占用业务线程
+     */
+    @Bean
+    public PoolingNHttpClientConnectionManager httpAsyncClientConnectionManager() throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                .setConnectTimeout(properties.getConnectTimeout())
+                .setSoTimeout(properties.getReadTimeout())
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpAsyncClient httpAsyncClient(PoolingNHttpClientConnectionManager httpAsyncClientConnectionManager) {
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(httpAsyncClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .disableCookieManagement()
+                .build();
+        httpAsyncClient.start();
+        return httpAsyncClient;
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeout())
+                .setSocketTimeout(properties.getReadTimeout())
+                .setConnectionRequestTimeout(properties.getConnectionRequestTimeout())
+                .build();
+    }
+
+    /**
+     * 优先使用服务端 Keep-Alive 头声明的保持时间，未声明时使用默认值
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        long defaultKeepAlive = TimeUnit.SECONDS.toMillis(properties.getKeepAliveTime());
+        return (response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+        };
+    }
+
+    /**
+     * RestTemplate 配置，基于连接池的 HttpComponents，支持 PATCH 方法
+     */
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+}
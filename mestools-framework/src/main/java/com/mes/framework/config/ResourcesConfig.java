@@ -6,8 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.CacheControl;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -30,6 +28,11 @@ public class ResourcesConfig implements WebMvcConfigurer {
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        /** 内容寻址附件，文件名即内容哈希，内容不可变可长期缓存 */
+        registry.addResourceHandler(Constants.RESOURCE_PREFIX + "/attachment/**")
+                .addResourceLocations("file:" + MesToolsConfig.getAttachmentPath() + "/")
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic());
+
         /** 本地文件上传路径 */
         registry.addResourceHandler(Constants.RESOURCE_PREFIX + "/**")
                 .addResourceLocations("file:" + MesToolsConfig.getProfile() + "/");
@@ -68,21 +71,4 @@ public class ResourcesConfig implements WebMvcConfigurer {
         // 返回新的CorsFilter
         return new CorsFilter(source);
     }
-
-    /**
-     * RestTemplate 配置 用于后端发送 HTTP 请求（如代理接口请求）
-     *
-     * @return
-     */
-    @Bean
-    public RestTemplate restTemplate() {
-        // 注意：SimpleClientHttpRequestFactory 基于 JDK HttpURLConnection，不支持 PATCH 方法。
-        // 如果需要支持 PATCH，建议引入 HttpClient 依赖并使用 HttpComponentsClientHttpRequestFactory。
-        // return new RestTemplate(new HttpComponentsClientHttpRequestFactory());
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        // 设置连接超时和读取超时时间（毫秒），防止请求卡死
-        factory.setConnectTimeout(10000);
-        factory.setReadTimeout(10000);
-        return new RestTemplate(factory);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.mes.framework.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 接口代理 HTTP 连接池配置属性
+ *
+ * @author weiyiming
+ */
+@Configuration
+@ConfigurationProperties(prefix = "httpclient")
+public class HttpClientProperties {
+    /**
+     * 连接池最大连接数
+     */
+    private int maxTotal = 200;
+
+    /**
+     * 单个主机(路由)最大连接数
+     */
+    private int maxPerRoute = 20;
+
+    /**
+     * 建立连接超时（毫秒）
+     */
+    private int connectTimeout = 10000;
+
+    /**
+     * 读取超时（毫秒）
+     */
+    private int readTimeout = 10000;
+
+    /**
+     * 从连接池获取连接的超时（毫秒）
+     */
+    private int connectionRequestTimeout = 3000;
+
+    /**
+     * 服务端未返回 Keep-Alive 头时连接的默认保持时间（秒）
+     */
+    private int keepAliveTime = 30;
+
+    /**
+     * 空闲连接回收时间（秒）
+     */
+    private int idleTimeout = 60;
+
+    /**
+     * 连接空闲超过该时间（毫秒）后复用前先校验
+     */
+    private int validateAfterInactivity = 2000;
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    public int getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    public void setKeepAliveTime(int keepAliveTime) {
+        this.keepAliveTime = keepAliveTime;
+    }
+
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(int idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(int validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+}
@@ -1,7 +1,9 @@
 package com.mes.framework.web.service;
 
+import java.util.List;
 import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import com.mes.common.constant.Constants;
@@ -18,6 +20,9 @@ import com.mes.framework.security.context.PermissionContextHolder;
  */
 @Service("ss")
 public class PermissionService {
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     /**
      * 验证用户是否具备某权限
      *
@@ -29,11 +34,18 @@ public class PermissionService {
             return false;
         }
         LoginUser loginUser = SecurityUtils.getLoginUser();
-        if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions())) {
+        if (StringUtils.isNull(loginUser)) {
             return false;
         }
         PermissionContextHolder.setContext(permission);
-        return hasPermissions(loginUser.getPermissions(), permission);
+        if (isAllPermission(loginUser)) {
+            return true;
+        }
+        List<SysRole> roles = getRoles(loginUser);
+        if (CollectionUtils.isEmpty(roles)) {
+            return !CollectionUtils.isEmpty(loginUser.getPermissions()) && hasPermissions(loginUser.getPermissions(), permission);
+        }
+        return rolePermissionIndex.hasPermission(roles, permission);
     }
 
     /**
@@ -57,11 +69,21 @@ public class PermissionService {
             return false;
         }
         LoginUser loginUser = SecurityUtils.getLoginUser();
-        if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions())) {
+        if (StringUtils.isNull(loginUser)) {
             return false;
         }
         PermissionContextHolder.setContext(permissions);
+        if (isAllPermission(loginUser)) {
+            return true;
+        }
+        List<SysRole> roles = getRoles(loginUser);
+        if (!CollectionUtils.isEmpty(roles)) {
+            return rolePermissionIndex.hasAnyPermission(roles, permissions);
+        }
         Set<String> authorities = loginUser.getPermissions();
+        if (CollectionUtils.isEmpty(authorities)) {
+            return false;
+        }
         for (String permission : permissions.split(Constants.PERMISSION_DELIMITER)) {
             if (permission != null && hasPermissions(authorities, permission)) {
                 return true;
@@ -125,6 +147,27 @@ public class PermissionService {
         return false;
     }
 
+    /**
+     * 判断用户是否拥有全部权限（超级管理员）
+     *
+     * @param loginUser 登录用户
+     * @return 是否拥有全部权限
+     */
+    private boolean isAllPermission(LoginUser loginUser) {
+        Set<String> permissions = loginUser.getPermissions();
+        return permissions != null && permissions.contains(Constants.ALL_PERMISSION);
+    }
+
+    /**
+     * 获取登录用户的角色列表
+     *
+     * @param loginUser 登录用户
+     * @return 角色列表
+     */
+    private List<SysRole> getRoles(LoginUser loginUser) {
+        return StringUtils.isNull(loginUser.getUser()) ? null : loginUser.getUser().getRoles();
+    }
+
     /**
      * 判断是否包含权限
      *
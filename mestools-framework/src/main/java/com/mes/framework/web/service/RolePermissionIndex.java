@@ -0,0 +1,349 @@
+package com.mes.framework.web.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.mes.common.constant.CacheConstants;
+import com.mes.common.constant.Constants;
+import com.mes.common.constant.UserConstants;
+import com.mes.common.core.domain.entity.SysRole;
+import com.mes.common.core.domain.model.RolePermissionBundle;
+import com.mes.common.core.redis.RedisCache;
+import com.mes.common.core.text.Convert;
+import com.mes.common.utils.StringUtils;
+import com.mes.system.service.ISysMenuService;
+import com.mes.system.service.ISysRoleService;
+
+/**
+ * 角色权限索引
+ * <p>
+ * 权限字符串统一编号，每个角色的权限预编译为位图，权限校验只需哈希查找编号再做位运算。
+ * 角色或菜单变更时按角色清除本地索引并通过Redis通知各节点，已登录用户无需重新登录即可生效。
+ * 角色权限包带版本号缓存在Redis中，各节点首次加载角色时优先读取，版本号不一致时才查询数据库。
+ *
+ * @author weiyiming
+ */
+@Component
+public class RolePermissionIndex {
+    /**
+     * 清除全部角色索引的通知内容
+     */
+    private static final String CLEAR_ALL = "*";
+
+    /**
+     * 预编译权限表达式的最大缓存数
+     */
+    private static final int MAX_COMPILED_SIZE = 10000;
+
+    /**
+     * Redis中角色权限包的有效期（天）
+     */
+    private static final int BUNDLE_EXPIRE_DAYS = 1;
+
+    @Autowired
+    private ISysRoleService roleService;
+
+    @Autowired
+    private ISysMenuService menuService;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    /**
+     * 权限字符串 -> 编号
+     */
+    private final Map<String, Integer> permissionIds = new ConcurrentHashMap<>();
+
+    /**
+     * 下一个权限编号
+     */
+    private final AtomicInteger nextPermissionId = new AtomicInteger();
+
+    /**
+     * 角色ID -> 角色权限
+     */
+    private final Map<Long, RolePermission> rolePermissions = new ConcurrentHashMap<>();
+
+    /**
+     * 权限表达式（逗号分隔） -> 权限位图
+     */
+    private final Map<String, BitSet> compiledPermissions = new ConcurrentHashMap<>();
+
+    /**
+     * 索引版本号，每次失效时递增，防止失效前加载的旧权限在失效后写回
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 订阅角色权限变更通知
+     */
+    @PostConstruct
+    public void init() {
+        redisCache.<String>subscribe(CacheConstants.ROLE_PERMISSION_TOPIC, this::removeLocal);
+    }
+
+    /**
+     * 获取角色的权限字符串集合（只读）
+     *
+     * @param roleId 角色ID
+     * @return 权限集合
+     */
+    public Set<String> getRolePermissions(Long roleId) {
+        return getRolePermission(roleId).permissions;
+    }
+
+    /**
+     * 使用登录查询一并带出的角色菜单权限预置本地索引，登录时无需再逐个角色查询权限
+     *
+     * @param roles 角色列表（permissions 为角色菜单权限）
+     */
+    public void preloadRoles(Collection<SysRole> roles) {
+        if (StringUtils.isEmpty(roles)) {
+            return;
+        }
+        long currentVersion = version.get();
+        Map<Long, RolePermission> loaded = new HashMap<>();
+        for (SysRole role : roles) {
+            if (StringUtils.isNull(role) || StringUtils.isNull(role.getRoleId()) || rolePermissions.containsKey(role.getRoleId())) {
+                continue;
+            }
+            if (!StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL) || role.isAdmin()) {
+                loaded.put(role.getRoleId(), compileRole(Collections.emptySet()));
+            } else {
+                loaded.put(role.getRoleId(), compileRole(splitPermissions(role.getPermissions())));
+            }
+        }
+        if (currentVersion == version.get()) {
+            for (Map.Entry<Long, RolePermission> entry : loaded.entrySet()) {
+                rolePermissions.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 判断角色中是否有任意一个具备某权限
+     *
+     * @param roles      角色列表
+     * @param permission 权限字符串
+     * @return 是否具备
+     */
+    public boolean hasPermission(Collection<SysRole> roles, String permission) {
+        // 先分配编号再加载角色，保证角色位图与待校验权限使用同一编号
+        int permissionId = intern(StringUtils.trim(permission));
+        for (SysRole role : roles) {
+            RolePermission rolePermission = getRolePermission(role.getRoleId());
+            if (rolePermission.allPermission || rolePermission.bits.get(permissionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断角色中是否有任意一个具备权限表达式中的任意一个权限
+     *
+     * @param roles       角色列表
+     * @param permissions 以 PERMISSION_DELIMITER 为分隔符的权限列表
+     * @return 是否具备
+     */
+    public boolean hasAnyPermission(Collection<SysRole> roles, String permissions) {
+        BitSet required = compile(permissions);
+        for (SysRole role : roles) {
+            RolePermission rolePermission = getRolePermission(role.getRoleId());
+            if (rolePermission.allPermission || rolePermission.bits.intersects(required)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 角色权限变更后调用，清除本节点索引并通知其他节点
+     *
+     * @param roleIds 角色ID
+     */
+    public void invalidateRoles(Long... roleIds) {
+        for (Long roleId : roleIds) {
+            String message = String.valueOf(roleId);
+            redisCache.incrementCacheMapValue(CacheConstants.ROLE_PERMISSION_VERSION_KEY, message, 1);
+            removeLocal(message);
+            redisCache.publish(CacheConstants.ROLE_PERMISSION_TOPIC, message);
+        }
+    }
+
+    /**
+     * 菜单权限变更后调用，清除全部角色索引并通知其他节点
+     */
+    public void invalidateAll() {
+        // 递增全局版本号使全部角色权限包失效，不依赖按数据权限过滤的角色列表
+        redisCache.incrementCacheMapValue(CacheConstants.ROLE_PERMISSION_VERSION_KEY, CLEAR_ALL, 1);
+        removeLocal(CLEAR_ALL);
+        redisCache.publish(CacheConstants.ROLE_PERMISSION_TOPIC, CLEAR_ALL);
+    }
+
+    /**
+     * 获取角色权限，不存在时加载并编译
+     *
+     * @param roleId 角色ID
+     * @return 角色权限
+     */
+    private RolePermission getRolePermission(Long roleId) {
+        RolePermission rolePermission = rolePermissions.get(roleId);
+        if (rolePermission != null) {
+            return rolePermission;
+        }
+        long currentVersion = version.get();
+        rolePermission = loadRolePermission(roleId);
+        // 加载期间发生过失效则不写回，下次校验重新加载
+        if (currentVersion == version.get()) {
+            rolePermissions.put(roleId, rolePermission);
+        }
+        return rolePermission;
+    }
+
+    /**
+     * 加载角色权限，停用、已删除的角色及超级管理员角色不具备菜单权限
+     *
+     * @param roleId 角色ID
+     * @return 角色权限
+     */
+    private RolePermission loadRolePermission(Long roleId) {
+        // 先取版本号再读数据库，加载期间角色被修改时写入的权限包版本号落后，不会被使用
+        List<Object> stamps = redisCache.getMultiCacheMapValue(CacheConstants.ROLE_PERMISSION_VERSION_KEY, Arrays.<Object>asList(String.valueOf(roleId), CLEAR_ALL));
+        long stamp = Convert.toLong(stamps.get(0), 0L);
+        long globalStamp = Convert.toLong(stamps.get(1), 0L);
+        String bundleKey = CacheConstants.ROLE_PERMISSION_KEY + roleId;
+        RolePermissionBundle bundle = redisCache.getCacheObject(bundleKey);
+        if (StringUtils.isNotNull(bundle) && bundle.getVersion() == stamp && bundle.getGlobalVersion() == globalStamp
+                && StringUtils.isNotNull(bundle.getPermissions())) {
+            return compileRole(bundle.getPermissions());
+        }
+        Set<String> permissions = Collections.emptySet();
+        SysRole role = roleService.selectRoleById(roleId);
+        if (StringUtils.isNotNull(role) && StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL) && !role.isAdmin()) {
+            permissions = menuService.selectMenuPermsByRoleId(roleId);
+        }
+        redisCache.setCacheObject(bundleKey, new RolePermissionBundle(roleId, stamp, globalStamp, new HashSet<>(permissions)), BUNDLE_EXPIRE_DAYS, TimeUnit.DAYS);
+        return compileRole(permissions);
+    }
+
+    /**
+     * 编译角色权限为位图
+     *
+     * @param permissions 权限字符串集合
+     * @return 角色权限
+     */
+    private RolePermission compileRole(Set<String> permissions) {
+        BitSet bits = new BitSet();
+        for (String permission : permissions) {
+            bits.set(intern(permission));
+        }
+        return new RolePermission(permissions, bits);
+    }
+
+    /**
+     * 拆分菜单权限标识（单个菜单可配置多个以逗号分隔的权限）
+     *
+     * @param perms 菜单权限标识集合
+     * @return 权限字符串集合
+     */
+    private Set<String> splitPermissions(Set<String> perms) {
+        Set<String> permissions = new HashSet<>();
+        if (StringUtils.isNull(perms)) {
+            return permissions;
+        }
+        for (String perm : perms) {
+            if (StringUtils.isNotEmpty(perm)) {
+                permissions.addAll(Arrays.asList(perm.trim().split(Constants.PERMISSION_DELIMITER)));
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * 编译权限表达式为位图
+     *
+     * @param permissions 以 PERMISSION_DELIMITER 为分隔符的权限列表
+     * @return 权限位图
+     */
+    private BitSet compile(String permissions) {
+        BitSet bits = compiledPermissions.get(permissions);
+        if (bits != null) {
+            return bits;
+        }
+        bits = new BitSet();
+        for (String permission : permissions.split(Constants.PERMISSION_DELIMITER)) {
+            if (StringUtils.isNotEmpty(permission)) {
+                bits.set(intern(StringUtils.trim(permission)));
+            }
+        }
+        if (compiledPermissions.size() < MAX_COMPILED_SIZE) {
+            compiledPermissions.put(permissions, bits);
+        }
+        return bits;
+    }
+
+    /**
+     * 获取权限字符串编号，不存在时分配新编号
+     *
+     * @param permission 权限字符串
+     * @return 编号
+     */
+    private int intern(String permission) {
+        return permissionIds.computeIfAbsent(permission, key -> nextPermissionId.getAndIncrement());
+    }
+
+    /**
+     * 清除本地角色索引
+     *
+     * @param message 角色ID，CLEAR_ALL 表示全部
+     */
+    private void removeLocal(String message) {
+        version.incrementAndGet();
+        if (CLEAR_ALL.equals(message)) {
+            rolePermissions.clear();
+        } else if (StringUtils.isNotEmpty(message)) {
+            rolePermissions.remove(Long.valueOf(message));
+        }
+    }
+
+    /**
+     * 角色权限，创建后不可变
+     */
+    private static class RolePermission {
+        /**
+         * 权限字符串集合
+         */
+        private final Set<String> permissions;
+
+        /**
+         * 权限位图
+         */
+        private final BitSet bits;
+
+        /**
+         * 是否拥有全部权限
+         */
+        private final boolean allPermission;
+
+        RolePermission(Set<String> permissions, BitSet bits) {
+            this.permissions = Collections.unmodifiableSet(new HashSet<>(permissions));
+            this.bits = bits;
+            this.allPermission = permissions.contains(Constants.ALL_PERMISSION);
+        }
+    }
+}
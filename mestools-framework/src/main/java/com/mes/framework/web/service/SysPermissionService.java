@@ -28,6 +28,9 @@ public class SysPermissionService {
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     /**
      * 获取角色数据权限
      *
@@ -62,7 +65,7 @@ public class SysPermissionService {
                 // 多角色设置permissions属性，以便数据权限匹配权限
                 for (SysRole role : roles) {
                     if (StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL) && !role.isAdmin()) {
-                        Set<String> rolePerms = menuService.selectMenuPermsByRoleId(role.getRoleId());
+                        Set<String> rolePerms = rolePermissionIndex.getRolePermissions(role.getRoleId());
                         role.setPermissions(rolePerms);
                         perms.addAll(rolePerms);
                     }
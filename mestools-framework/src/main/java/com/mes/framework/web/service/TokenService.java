@@ -2,7 +2,9 @@ package com.mes.framework.web.service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
@@ -35,6 +37,12 @@ public class TokenService {
     protected static final long MILLIS_MINUTE = 60 * MILLIS_SECOND;
     private static final Logger log = LoggerFactory.getLogger(TokenService.class);
     private static final Long MILLIS_MINUTE_TWENTY = 20 * 60 * 1000L;
+    // 本地缓存有效期（毫秒），兜底订阅消息丢失时的不一致窗口
+    private static final long NEAR_CACHE_TTL = 10 * MILLIS_SECOND;
+    // 本地缓存最大条数
+    private static final int NEAR_CACHE_MAX_SIZE = 10000;
+    // 同一令牌的最小续期间隔（毫秒），并发请求与重复加载只续期一次
+    private static final long REFRESH_MIN_INTERVAL = 5 * MILLIS_MINUTE;
     // 令牌自定义标识
     @Value("${token.header}")
     private String header;
@@ -47,6 +55,41 @@ public class TokenService {
     @Autowired
     private RedisCache redisCache;
 
+    /**
+     * 登录用户本地缓存（令牌uuid -> 用户信息），避免每个请求都访问 Redis
+     */
+    private final Map<String, CachedLoginUser> nearCache = new ConcurrentHashMap<>();
+
+    /**
+     * 各令牌最近一次续期时间（令牌uuid -> 时间戳），用于续期合并
+     */
+    private final Map<String, Long> refreshTimes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // 其他节点退出、强退或变更权限时清除本地缓存
+        redisCache.<String>subscribe(CacheConstants.LOGIN_TOKEN_TOPIC, nearCache::remove);
+        rebuildTokenIndex();
+    }
+
+    /**
+     * 将索引中缺失的在线令牌补入索引（兼容索引引入前登录的会话），使用 SCAN 不阻塞 Redis
+     */
+    private void rebuildTokenIndex() {
+        try {
+            long currentTime = System.currentTimeMillis();
+            for (String userKey : redisCache.scan(CacheConstants.LOGIN_TOKEN_KEY + "*")) {
+                long ttl = redisCache.getExpire(userKey);
+                if (ttl > 0) {
+                    String token = userKey.substring(CacheConstants.LOGIN_TOKEN_KEY.length());
+                    redisCache.addCacheZSetValue(CacheConstants.LOGIN_TOKEN_INDEX_KEY, token, currentTime + ttl * MILLIS_SECOND);
+                }
+            }
+        } catch (Exception e) {
+            log.error("重建在线令牌索引失败'{}'", e.getMessage());
+        }
+    }
+
     /**
      * 获取用户身份信息
      *
@@ -60,8 +103,17 @@ public class TokenService {
                 Claims claims = parseToken(token);
                 // 解析对应的权限以及用户信息
                 String uuid = (String) claims.get(Constants.LOGIN_USER_KEY);
+                CachedLoginUser cached = nearCache.get(uuid);
+                if (cached != null && cached.expireAt > System.currentTimeMillis()) {
+                    return cached.loginUser;
+                }
                 String userKey = getTokenKey(uuid);
                 LoginUser user = redisCache.getCacheObject(userKey);
+                if (user != null) {
+                    putNearCache(uuid, user);
+                } else {
+                    nearCache.remove(uuid);
+                }
                 return user;
             } catch (Exception e) {
                 log.error("获取用户信息异常'{}'", e.getMessage());
@@ -76,6 +128,7 @@ public class TokenService {
     public void setLoginUser(LoginUser loginUser) {
         if (StringUtils.isNotNull(loginUser) && StringUtils.isNotEmpty(loginUser.getToken())) {
             refreshToken(loginUser);
+            redisCache.publish(CacheConstants.LOGIN_TOKEN_TOPIC, loginUser.getToken());
         }
     }
 
@@ -86,6 +139,10 @@ public class TokenService {
         if (StringUtils.isNotEmpty(token)) {
             String userKey = getTokenKey(token);
             redisCache.deleteObject(userKey);
+            redisCache.deleteCacheZSetValue(CacheConstants.LOGIN_TOKEN_INDEX_KEY, token);
+            nearCache.remove(token);
+            refreshTimes.remove(token);
+            redisCache.publish(CacheConstants.LOGIN_TOKEN_TOPIC, token);
         }
     }
 
@@ -108,7 +165,7 @@ public class TokenService {
     }
 
     /**
-     * 验证令牌有效期，相差不足20分钟，自动刷新缓存
+     * 验证令牌有效期，相差不足20分钟，自动续期
      *
      * @param loginUser 登录信息
      * @return 令牌
@@ -116,11 +173,50 @@ public class TokenService {
     public void verifyToken(LoginUser loginUser) {
         long expireTime = loginUser.getExpireTime();
         long currentTime = System.currentTimeMillis();
-        if (expireTime - currentTime <= MILLIS_MINUTE_TWENTY) {
-            refreshToken(loginUser);
+        if (expireTime - currentTime <= MILLIS_MINUTE_TWENTY && tryAcquireRefresh(loginUser.getToken(), currentTime)) {
+            renewToken(loginUser, currentTime);
         }
     }
 
+    /**
+     * 抢占令牌续期权：同一令牌在最小续期间隔内只有一个请求能够续期（CAS）
+     */
+    private boolean tryAcquireRefresh(String token, long currentTime) {
+        if (refreshTimes.size() >= NEAR_CACHE_MAX_SIZE) {
+            refreshTimes.values().removeIf(time -> currentTime - time >= REFRESH_MIN_INTERVAL);
+        }
+        Long lastTime = refreshTimes.get(token);
+        if (lastTime != null && currentTime - lastTime < REFRESH_MIN_INTERVAL) {
+            return false;
+        }
+        return lastTime == null ? refreshTimes.putIfAbsent(token, currentTime) == null : refreshTimes.replace(token, lastTime, currentTime);
+    }
+
+    /**
+     * 令牌续期：以 Redis 中的最新用户信息为准，进入续期窗口时重写一次 LoginUser（含新的过期时间），
+     * 其他节点或本地缓存中过期时间已过时的副本据此判断已续期，不会在之后的每个续期间隔重复续期
+     */
+    private void renewToken(LoginUser loginUser, long currentTime) {
+        String userKey = getTokenKey(loginUser.getToken());
+        LoginUser latest = redisCache.getCacheObject(userKey);
+        if (latest == null) {
+            // 键已不存在（已退出或被强退）
+            nearCache.remove(loginUser.getToken());
+            return;
+        }
+        if (latest.getExpireTime() - currentTime > MILLIS_MINUTE_TWENTY) {
+            // 已由其他节点续期，只同步本地副本
+            loginUser.setExpireTime(latest.getExpireTime());
+            putNearCache(loginUser.getToken(), latest);
+            return;
+        }
+        latest.setExpireTime(currentTime + expireTime * MILLIS_MINUTE);
+        redisCache.setCacheObject(userKey, latest, expireTime, TimeUnit.MINUTES);
+        redisCache.addCacheZSetValue(CacheConstants.LOGIN_TOKEN_INDEX_KEY, latest.getToken(), latest.getExpireTime());
+        loginUser.setExpireTime(latest.getExpireTime());
+        putNearCache(loginUser.getToken(), latest);
+    }
+
     /**
      * 刷新令牌有效期
      *
@@ -132,6 +228,20 @@ public class TokenService {
         // 根据uuid将loginUser缓存
         String userKey = getTokenKey(loginUser.getToken());
         redisCache.setCacheObject(userKey, loginUser, expireTime, TimeUnit.MINUTES);
+        // 维护在线令牌索引，在线用户列表无需遍历全部键
+        redisCache.addCacheZSetValue(CacheConstants.LOGIN_TOKEN_INDEX_KEY, loginUser.getToken(), loginUser.getExpireTime());
+        putNearCache(loginUser.getToken(), loginUser);
+    }
+
+    private void putNearCache(String uuid, LoginUser loginUser) {
+        if (nearCache.size() >= NEAR_CACHE_MAX_SIZE) {
+            long now = System.currentTimeMillis();
+            nearCache.values().removeIf(cached -> cached.expireAt <= now);
+            if (nearCache.size() >= NEAR_CACHE_MAX_SIZE) {
+                return;
+            }
+        }
+        nearCache.put(uuid, new CachedLoginUser(loginUser, System.currentTimeMillis() + NEAR_CACHE_TTL));
     }
 
     /**
@@ -202,4 +312,18 @@ public class TokenService {
     private String getTokenKey(String uuid) {
         return CacheConstants.LOGIN_TOKEN_KEY + uuid;
     }
+
+    /**
+     * 本地缓存条目
+     */
+    private static class CachedLoginUser {
+        private final LoginUser loginUser;
+
+        private final long expireAt;
+
+        CachedLoginUser(LoginUser loginUser, long expireAt) {
+            this.loginUser = loginUser;
+            this.expireAt = expireAt;
+        }
+    }
 }
@@ -33,9 +33,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private SysPermissionService permissionService;
 
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        SysUser user = userService.selectUserByUserName(username);
+        // 一次查询带出用户、部门、角色及角色菜单权限
+        SysUser user = userService.selectLoginUserByUserName(username);
         if (StringUtils.isNull(user)) {
             log.info("登录用户：{} 不存在.", username);
             throw new ServiceException(MessageUtils.message("user.not.exists"));
@@ -53,6 +57,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     }
 
     public UserDetails createLoginUser(SysUser user) {
+        rolePermissionIndex.preloadRoles(user.getRoles());
         return new LoginUser(user.getUserId(), user.getDeptId(), user, permissionService.getMenuPermission(user));
     }
 }
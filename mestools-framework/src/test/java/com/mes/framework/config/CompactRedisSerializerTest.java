@@ -0,0 +1,181 @@
+package com.mes.framework.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.mes.common.core.domain.entity.SysDictData;
+import com.mes.common.core.domain.entity.SysUser;
+import com.mes.common.core.domain.model.LoginUser;
+import com.mes.system.domain.SysConfig;
+
+/**
+ * Redis JSONB 序列化测试
+ * <p>
+ * 覆盖 JSON -> JSONB 滚动迁移的读取兼容、压缩阈值与标量写入，并对比登录用户、字典数据列表、参数配置
+ * 两种格式的存储大小与解码耗时（耗时仅输出供参考，不作断言）。
+ *
+ * @author weiyiming
+ */
+public class CompactRedisSerializerTest {
+    private static final Logger log = LoggerFactory.getLogger(CompactRedisSerializerTest.class);
+
+    /**
+     * 压缩阈值（字节），与 redisSerializer.compressThreshold 默认值一致
+     */
+    private static final int COMPRESS_THRESHOLD = 1024;
+
+    /**
+     * 解码耗时对比的循环次数
+     */
+    private static final int DECODE_ROUNDS = 2000;
+
+    private final CompactRedisSerializer<Object> jsonSerializer = new CompactRedisSerializer<>(Object.class, false, COMPRESS_THRESHOLD);
+
+    private final CompactRedisSerializer<Object> jsonbSerializer = new CompactRedisSerializer<>(Object.class, true, COMPRESS_THRESHOLD);
+
+    /**
+     * 升级后仍写 JSON 的节点写入的值，切换为 JSONB 的节点可以读取；反之亦然
+     */
+    @Test
+    public void rollingReadBetweenJsonAndJsonb() {
+        LoginUser loginUser = newLoginUser();
+
+        byte[] json = jsonSerializer.serialize(loginUser);
+        Assertions.assertNotEquals(CompactRedisSerializer.MAGIC, json[0]);
+        assertLoginUser(loginUser, (LoginUser) jsonbSerializer.deserialize(json));
+
+        byte[] jsonb = jsonbSerializer.serialize(loginUser);
+        Assertions.assertEquals(CompactRedisSerializer.MAGIC, jsonb[0]);
+        assertLoginUser(loginUser, (LoginUser) jsonSerializer.deserialize(jsonb));
+    }
+
+    /**
+     * 超过阈值的值压缩存储，未超过的不压缩，两者都能还原
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void compressAboveThreshold() {
+        SysConfig config = newConfig();
+        byte[] small = jsonbSerializer.serialize(config);
+        Assertions.assertTrue(small.length <= COMPRESS_THRESHOLD + 2);
+        Assertions.assertEquals(CompactRedisSerializer.VERSION_JSONB, small[1]);
+        Assertions.assertEquals(config.getConfigValue(), ((SysConfig) jsonbSerializer.deserialize(small)).getConfigValue());
+
+        List<SysDictData> dictDatas = newDictDatas(200);
+        byte[] large = jsonbSerializer.serialize(dictDatas);
+        Assertions.assertEquals(CompactRedisSerializer.VERSION_JSONB_DEFLATE, large[1]);
+        List<SysDictData> decoded = (List<SysDictData>) jsonbSerializer.deserialize(large);
+        Assertions.assertEquals(dictDatas.size(), decoded.size());
+        Assertions.assertEquals(dictDatas.get(199).getDictLabel(), decoded.get(199).getDictLabel());
+
+        CompactRedisSerializer<Object> uncompressed = new CompactRedisSerializer<>(Object.class, true, 0);
+        Assertions.assertEquals(CompactRedisSerializer.VERSION_JSONB, uncompressed.serialize(dictDatas)[1]);
+    }
+
+    /**
+     * 字符串、数字等标量始终写 JSON 文本，供限流 Lua 脚本直接读取
+     */
+    @Test
+    public void scalarsStayJsonText() {
+        Assertions.assertEquals("5", new String(jsonbSerializer.serialize(5), FastJson2JsonRedisSerializer.DEFAULT_CHARSET));
+        Assertions.assertEquals(5, jsonbSerializer.deserialize(jsonbSerializer.serialize(5)));
+        Assertions.assertEquals("value", jsonbSerializer.deserialize(jsonbSerializer.serialize("value")));
+    }
+
+    /**
+     * 对比登录用户、字典数据列表、参数配置两种格式的存储大小与解码耗时
+     */
+    @Test
+    public void compareJsonAndJsonb() {
+        compare("LoginUser", newLoginUser());
+        compare("SysDictData x 20", newDictDatas(20));
+        compare("SysDictData x 200", newDictDatas(200));
+        compare("SysConfig", newConfig());
+
+        List<SysDictData> dictDatas = newDictDatas(200);
+        Assertions.assertTrue(jsonbSerializer.serialize(dictDatas).length < jsonSerializer.serialize(dictDatas).length);
+    }
+
+    private void compare(String name, Object value) {
+        byte[] json = jsonSerializer.serialize(value);
+        byte[] jsonb = jsonbSerializer.serialize(value);
+        Assertions.assertEquals(jsonSerializer.deserialize(json).getClass(), jsonbSerializer.deserialize(jsonb).getClass());
+        log.info("{}: JSON {} 字节 / 解码 {} us，JSONB {} 字节 / 解码 {} us", name,
+                json.length, decodeMicros(json), jsonb.length, decodeMicros(jsonb));
+    }
+
+    /**
+     * 预热后的平均解码耗时（微秒）
+     */
+    private long decodeMicros(byte[] bytes) {
+        for (int i = 0; i < DECODE_ROUNDS; i++) {
+            jsonbSerializer.deserialize(bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < DECODE_ROUNDS; i++) {
+            jsonbSerializer.deserialize(bytes);
+        }
+        return (System.nanoTime() - start) / DECODE_ROUNDS / 1000;
+    }
+
+    private static void assertLoginUser(LoginUser expected, LoginUser actual) {
+        Assertions.assertEquals(expected.getUserId(), actual.getUserId());
+        Assertions.assertEquals(expected.getToken(), actual.getToken());
+        Assertions.assertEquals(expected.getExpireTime(), actual.getExpireTime());
+        Assertions.assertEquals(expected.getPermissions(), actual.getPermissions());
+        Assertions.assertEquals(expected.getUser().getUserName(), actual.getUser().getUserName());
+    }
+
+    private static LoginUser newLoginUser() {
+        SysUser user = new SysUser();
+        user.setUserId(2L);
+        user.setDeptId(103L);
+        user.setUserName("test");
+        user.setNickName("测试用户");
+        user.setStatus("0");
+        user.setDelFlag("0");
+        LoginUser loginUser = new LoginUser(2L, 103L, user, new HashSet<>(Arrays.asList(
+                "dailyTools:queryInfo:list", "dailyTools:queryInfo:query", "system:user:list", "system:role:list")));
+        loginUser.setToken("0f8fad5b-d9cb-469f-a165-70867728950e");
+        loginUser.setLoginTime(System.currentTimeMillis());
+        loginUser.setExpireTime(loginUser.getLoginTime() + 30 * 60 * 1000L);
+        loginUser.setIpaddr("192.168.1.10");
+        loginUser.setLoginLocation("内网IP");
+        loginUser.setBrowser("Chrome 12");
+        loginUser.setOs("Windows 10");
+        return loginUser;
+    }
+
+    private static List<SysDictData> newDictDatas(int size) {
+        List<SysDictData> dictDatas = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SysDictData dictData = new SysDictData();
+            dictData.setDictCode((long) i);
+            dictData.setDictSort((long) i);
+            dictData.setDictLabel("标签" + i);
+            dictData.setDictValue(String.valueOf(i));
+            dictData.setDictType("mes_test_type");
+            dictData.setListClass("default");
+            dictData.setIsDefault("N");
+            dictData.setStatus("0");
+            dictDatas.add(dictData);
+        }
+        return dictDatas;
+    }
+
+    private static SysConfig newConfig() {
+        SysConfig config = new SysConfig();
+        config.setConfigId(1L);
+        config.setConfigName("账号自助-验证码开关");
+        config.setConfigKey("sys.account.captchaEnabled");
+        config.setConfigValue("true");
+        config.setConfigType("Y");
+        return config;
+    }
+}
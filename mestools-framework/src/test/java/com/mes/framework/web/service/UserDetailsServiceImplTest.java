@@ -0,0 +1,119 @@
+package com.mes.framework.web.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.mes.common.constant.UserConstants;
+import com.mes.common.core.domain.entity.SysRole;
+import com.mes.common.core.domain.entity.SysUser;
+import com.mes.common.core.domain.model.LoginUser;
+import com.mes.common.core.redis.RedisCache;
+import com.mes.system.service.ISysMenuService;
+import com.mes.system.service.ISysRoleService;
+import com.mes.system.service.ISysUserService;
+
+/**
+ * 登录用户加载测试
+ * <p>
+ * 登录时一次查询带出用户、角色及角色菜单权限，并预置权限索引，不再逐个角色查询菜单权限。
+ *
+ * @author weiyiming
+ */
+public class UserDetailsServiceImplTest {
+    /**
+     * 用户的角色ID
+     */
+    private static final List<Long> ROLE_IDS = Arrays.asList(100L, 101L, 102L);
+
+    private ISysUserService userService;
+
+    private ISysRoleService roleService;
+
+    private ISysMenuService menuService;
+
+    private RedisCache redisCache;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    public void setUp() {
+        userService = Mockito.mock(ISysUserService.class);
+        roleService = Mockito.mock(ISysRoleService.class);
+        menuService = Mockito.mock(ISysMenuService.class);
+        redisCache = Mockito.mock(RedisCache.class);
+        SysPasswordService passwordService = Mockito.mock(SysPasswordService.class);
+
+        Mockito.when(userService.selectLoginUserByUserName(Mockito.anyString())).thenAnswer(invocation -> newUser());
+
+        RolePermissionIndex rolePermissionIndex = new RolePermissionIndex();
+        ReflectionTestUtils.setField(rolePermissionIndex, "roleService", roleService);
+        ReflectionTestUtils.setField(rolePermissionIndex, "menuService", menuService);
+        ReflectionTestUtils.setField(rolePermissionIndex, "redisCache", redisCache);
+
+        SysPermissionService permissionService = new SysPermissionService();
+        ReflectionTestUtils.setField(permissionService, "roleService", roleService);
+        ReflectionTestUtils.setField(permissionService, "menuService", menuService);
+        ReflectionTestUtils.setField(permissionService, "rolePermissionIndex", rolePermissionIndex);
+
+        userDetailsService = new UserDetailsServiceImpl();
+        ReflectionTestUtils.setField(userDetailsService, "userService", userService);
+        ReflectionTestUtils.setField(userDetailsService, "passwordService", passwordService);
+        ReflectionTestUtils.setField(userDetailsService, "permissionService", permissionService);
+        ReflectionTestUtils.setField(userDetailsService, "rolePermissionIndex", rolePermissionIndex);
+    }
+
+    /**
+     * 每次登录只查询一次用户，角色菜单权限取自登录查询结果，不再逐个角色查询
+     */
+    @Test
+    public void loadUserByUsernameWithSingleQuery() {
+        Set<String> expected = new HashSet<>();
+        for (Long roleId : ROLE_IDS) {
+            expected.addAll(rolePerms(roleId));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            LoginUser loginUser = (LoginUser) userDetailsService.loadUserByUsername("test");
+            Assertions.assertEquals(expected, loginUser.getPermissions());
+        }
+        Mockito.verify(userService, Mockito.times(3)).selectLoginUserByUserName("test");
+        Mockito.verify(userService, Mockito.never()).selectUserByUserName(Mockito.anyString());
+        Mockito.verifyNoInteractions(roleService, menuService, redisCache);
+    }
+
+    /**
+     * 构造登录查询返回的用户，角色带出菜单权限（单个菜单可配置多个以逗号分隔的权限）
+     */
+    private static SysUser newUser() {
+        SysUser user = new SysUser();
+        user.setUserId(2L);
+        user.setDeptId(103L);
+        user.setUserName("test");
+        user.setStatus("0");
+        user.setDelFlag("0");
+        List<SysRole> roles = new ArrayList<>();
+        for (Long roleId : ROLE_IDS) {
+            SysRole role = new SysRole(roleId);
+            role.setStatus(UserConstants.ROLE_NORMAL);
+            role.setPermissions(new HashSet<>(Arrays.asList(String.join(",", rolePerms(roleId)))));
+            roles.add(role);
+        }
+        user.setRoles(roles);
+        return user;
+    }
+
+    /**
+     * 角色菜单权限
+     */
+    private static List<String> rolePerms(Long roleId) {
+        return Arrays.asList("dailyTools:queryInfo:list", "dailyTools:queryInfo:query", "system:role" + roleId + ":list");
+    }
+}
@@ -1,5 +1,6 @@
 package com.mes.system.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mes.common.core.domain.BaseEntity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -48,4 +49,10 @@ public class ApiManageHistory extends BaseEntity {
      * 请求时的完整UI快照 (JSON字符串)
      */
     private String snapshotJson;
+
+    /**
+     * GZIP 压缩存储的快照 (snapshot_gzip)，读取时解压到 snapshotJson，不返回给前端
+     */
+    @JsonIgnore
+    private byte[] snapshotGzip;
 }
@@ -0,0 +1,61 @@
+package com.mes.system.domain;
+
+import com.mes.common.core.domain.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: SQL执行分析历史记录（执行计划与统计信息）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ExecuteSqlHistory extends BaseEntity {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 历史记录ID
+     */
+    private Long historyId;
+
+    /**
+     * 数据源
+     */
+    private String dbName;
+
+    /**
+     * SQL语句内容
+     */
+    private String sqlContent;
+
+    /**
+     * 估算的语句总成本
+     */
+    private Double estimatedCost;
+
+    /**
+     * 逻辑读合计
+     */
+    private Long logicalReads;
+
+    /**
+     * 执行CPU时间（毫秒）
+     */
+    private Long cpuTime;
+
+    /**
+     * 执行耗时（毫秒）
+     */
+    private Long elapsedTime;
+
+    /**
+     * 结构化分析结果 (JSON字符串，不含执行计划XML)
+     */
+    private String analysisJson;
+
+    /**
+     * 估算执行计划XML
+     */
+    private String planXml;
+}
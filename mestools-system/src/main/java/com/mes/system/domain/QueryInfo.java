@@ -1,5 +1,6 @@
 package com.mes.system.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mes.common.annotation.Excel;
 import com.mes.common.core.domain.BaseEntity;
 import lombok.Data;
@@ -34,4 +35,15 @@ public class QueryInfo extends BaseEntity {
 
     @Excel(name = "搜索次数")
     private Integer searchCount;
+
+    /**
+     * 资料内容的纯文本摘要，仅列表投影返回
+     */
+    private String infoSnippet;
+
+    /**
+     * 资料内容的纯文本（去除HTML标签与内联图片），用于全文检索，不返回给前端
+     */
+    @JsonIgnore
+    private String infoText;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.mes.system.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 资料标签索引 query_info_tag（info_tags 拆分后的规范化存储）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryInfoTag {
+    /**
+     * 资料ID
+     */
+    private Integer infoId;
+
+    /**
+     * 标签
+     */
+    private String tag;
+}
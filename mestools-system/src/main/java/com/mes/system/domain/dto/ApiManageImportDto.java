@@ -0,0 +1,24 @@
+package com.mes.system.domain.dto;
+
+import com.mes.system.domain.ApiManageItem;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 接口管理备份数据（导入导出格式）
+ */
+@Data
+public class ApiManageImportDto {
+    /**
+     * 环境列表
+     */
+    private List<ApiManageItem> envs;
+
+    /**
+     * 接口树（通过 children 嵌套）
+     */
+    private List<ApiManageItem> tree;
+}
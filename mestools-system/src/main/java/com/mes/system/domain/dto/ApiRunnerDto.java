@@ -0,0 +1,41 @@
+package com.mes.system.domain.dto;
+
+import lombok.Data;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 接口集合运行参数（目录批量执行 / 单接口压测）
+ */
+@Data
+public class ApiRunnerDto {
+    /**
+     * 目录ID（执行该目录下的全部接口，与 itemId 二选一）
+     */
+    private Long folderId;
+
+    /**
+     * 接口ID（重复执行单个接口）
+     */
+    private Long itemId;
+
+    /**
+     * 环境ID（用于替换基础URL与 {{变量}}）
+     */
+    private Long envId;
+
+    /**
+     * 迭代次数（目录时每次迭代执行全部接口）
+     */
+    private Integer iterations;
+
+    /**
+     * 并发数（虚拟用户数）
+     */
+    private Integer concurrency;
+
+    /**
+     * 爬坡时间（秒），并发用户在该时间内均匀启动
+     */
+    private Integer rampUpSeconds;
+}
@@ -0,0 +1,42 @@
+package com.mes.system.domain.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 批量修改FIS账号密码DTO
+ */
+@Data
+@ApiModel(value = "BatchChangePwdDTO", description = "批量修改密码参数")
+public class BatchChangePwdDTO {
+
+    @ApiModelProperty(value = "数据源", required = true, example = "LOCALHOST")
+    @NotBlank(message = "数据源不能为空")
+    private String dbDataSource;
+
+    @ApiModelProperty(value = "账号与新密码列表", required = true)
+    @NotEmpty(message = "账号列表不能为空")
+    @Valid
+    private List<Account> accounts;
+
+    @Data
+    @ApiModel(value = "BatchChangePwdDTO.Account", description = "账号与新密码")
+    public static class Account {
+
+        @ApiModelProperty(value = "FIS账号", required = true, example = "2550091")
+        @NotBlank(message = "FIS账号不能为空")
+        private String fisNumber;
+
+        @ApiModelProperty(value = "新密码", required = true, example = "123456")
+        @NotBlank(message = "密码不能为空")
+        private String password;
+    }
+}
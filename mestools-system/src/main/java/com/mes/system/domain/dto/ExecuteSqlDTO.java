@@ -4,6 +4,8 @@ import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * @Author: weiyiming
  * @CreateTime: 2025-12-10
@@ -18,4 +20,7 @@ public class ExecuteSqlDTO {
 
     @ApiModelProperty(value = "SQL语句内容", required = true, example = "没有例子自己写")
     private String sqlContent;
+
+    @ApiModelProperty(value = "并发查询的数据源列表", example = "[\"IPTFIS-DB-70\", \"IPTFIS-DB-71\", \"ITEFIS-DB-ONLINE\"]")
+    private List<String> dbDataSources;
 }
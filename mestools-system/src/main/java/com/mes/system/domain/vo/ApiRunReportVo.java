@@ -0,0 +1,110 @@
+package com.mes.system.domain.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 接口集合运行报告
+ */
+@Data
+public class ApiRunReportVo {
+    /**
+     * 总请求数
+     */
+    private int totalRequests;
+
+    /**
+     * 失败请求数（网络异常或状态码 >= 400）
+     */
+    private int errorCount;
+
+    /**
+     * 错误率(%)
+     */
+    private double errorRate;
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private long totalTime;
+
+    /**
+     * 吞吐量（请求/秒）
+     */
+    private double throughput;
+
+    /**
+     * 延迟统计（毫秒）
+     */
+    private LatencyStats latency;
+
+    /**
+     * 状态码分布（0 表示网络异常/超时）
+     */
+    private Map<Integer, Integer> statusCounts = new TreeMap<>();
+
+    /**
+     * 各接口统计
+     */
+    private List<ItemStats> items = new ArrayList<>();
+
+    /**
+     * 错误样例（最多保留前若干条）
+     */
+    private List<String> errorSamples = new ArrayList<>();
+
+    /**
+     * 延迟统计
+     */
+    @Data
+    public static class LatencyStats {
+        private double min;
+
+        private double max;
+
+        private double avg;
+
+        private double p50;
+
+        private double p90;
+
+        private double p99;
+    }
+
+    /**
+     * 单接口统计
+     */
+    @Data
+    public static class ItemStats {
+        /**
+         * 接口ID
+         */
+        private Long itemId;
+
+        /**
+         * 接口名称
+         */
+        private String itemName;
+
+        /**
+         * 请求数
+         */
+        private int count;
+
+        /**
+         * 失败数
+         */
+        private int errorCount;
+
+        /**
+         * 延迟统计（毫秒）
+         */
+        private LatencyStats latency;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mes.system.domain.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 批量修改FIS账号密码的单个账号结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePwdResultVo {
+    /**
+     * FIS账号
+     */
+    private String fisNumber;
+
+    /**
+     * 是否修改成功
+     */
+    private boolean success;
+
+    /**
+     * 提示信息
+     */
+    private String message;
+}
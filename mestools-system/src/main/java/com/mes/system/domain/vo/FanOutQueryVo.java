@@ -0,0 +1,48 @@
+package com.mes.system.domain.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 多数据源并发查询结果
+ */
+@Data
+public class FanOutQueryVo {
+    /**
+     * 合并后的结果行（每行首列为来源数据库）
+     */
+    private List<Map<String, Object>> rows = new ArrayList<>();
+
+    /**
+     * 各数据源返回行数
+     */
+    private Map<String, Integer> rowCounts = new LinkedHashMap<>();
+
+    /**
+     * 各数据源执行耗时（毫秒）
+     */
+    private Map<String, Long> costTimes = new LinkedHashMap<>();
+
+    /**
+     * 执行失败或超时的数据源及原因
+     */
+    private Map<String, String> failures = new LinkedHashMap<>();
+
+    /**
+     * 总耗时（毫秒）
+     */
+    private long totalTime;
+
+    /**
+     * 是否为部分结果（存在失败的数据源）
+     */
+    public boolean isPartial() {
+        return !failures.isEmpty();
+    }
+}
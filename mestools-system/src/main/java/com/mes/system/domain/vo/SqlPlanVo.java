@@ -0,0 +1,167 @@
+package com.mes.system.domain.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: SQL执行计划与统计信息分析结果
+ */
+@Data
+public class SqlPlanVo {
+    /**
+     * 历史记录ID
+     */
+    private Long historyId;
+
+    /**
+     * 数据源
+     */
+    private String dbName;
+
+    /**
+     * 估算的语句总成本
+     */
+    private Double estimatedCost;
+
+    /**
+     * 计划中的主要运算符（按估算成本降序）
+     */
+    private List<PlanOperator> operators = new ArrayList<>();
+
+    /**
+     * 缺失索引提示
+     */
+    private List<MissingIndex> missingIndexes = new ArrayList<>();
+
+    /**
+     * 各表的IO统计 (SET STATISTICS IO)
+     */
+    private List<TableIo> tableIos = new ArrayList<>();
+
+    /**
+     * 逻辑读合计
+     */
+    private Long logicalReads;
+
+    /**
+     * 执行CPU时间（毫秒，SET STATISTICS TIME）
+     */
+    private Long cpuTime;
+
+    /**
+     * 执行耗时（毫秒，SET STATISTICS TIME）
+     */
+    private Long elapsedTime;
+
+    /**
+     * 统计信息采集失败原因（如执行超时），此时仅返回估算执行计划
+     */
+    private String statisticsError;
+
+    /**
+     * 原始统计信息输出
+     */
+    private List<String> messages = new ArrayList<>();
+
+    /**
+     * 估算执行计划XML (SET SHOWPLAN_XML)
+     */
+    private String planXml;
+
+    /**
+     * 执行计划运算符
+     */
+    @Data
+    public static class PlanOperator {
+        /**
+         * 物理运算符
+         */
+        private String physicalOp;
+
+        /**
+         * 逻辑运算符
+         */
+        private String logicalOp;
+
+        /**
+         * 访问的对象（表/索引）
+         */
+        private String objectName;
+
+        /**
+         * 估算行数
+         */
+        private Double estimateRows;
+
+        /**
+         * 估算子树成本
+         */
+        private Double estimatedCost;
+    }
+
+    /**
+     * 缺失索引提示
+     */
+    @Data
+    public static class MissingIndex {
+        /**
+         * 预估提升比例(%)
+         */
+        private Double impact;
+
+        /**
+         * 表名
+         */
+        private String tableName;
+
+        /**
+         * 等值条件列
+         */
+        private List<String> equalityColumns = new ArrayList<>();
+
+        /**
+         * 不等条件列
+         */
+        private List<String> inequalityColumns = new ArrayList<>();
+
+        /**
+         * 包含列
+         */
+        private List<String> includeColumns = new ArrayList<>();
+
+        /**
+         * 建议的建索引语句
+         */
+        private String createStatement;
+    }
+
+    /**
+     * 单表IO统计
+     */
+    @Data
+    public static class TableIo {
+        /**
+         * 表名
+         */
+        private String tableName;
+
+        /**
+         * 扫描次数
+         */
+        private Long scanCount;
+
+        /**
+         * 逻辑读
+         */
+        private Long logicalReads;
+
+        /**
+         * 物理读
+         */
+        private Long physicalReads;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mes.system.domain.vo;
+
+import lombok.Data;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 资料标签分面统计
+ */
+@Data
+public class TagFacetVo {
+    /**
+     * 标签
+     */
+    private String tag;
+
+    /**
+     * 包含该标签的资料数量
+     */
+    private Integer tagCount;
+}
@@ -1,7 +1,9 @@
 package com.mes.system.mapper;
 
 import com.mes.system.domain.ApiManageHistory;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -12,5 +14,37 @@ import java.util.List;
 public interface ApiManageHistoryMapper {
     List<ApiManageHistory> selectApiManageHistoryList(ApiManageHistory history);
 
+    /**
+     * 游标分页查询（按创建时间倒序，不含快照）
+     *
+     * @param itemId         接口项ID
+     * @param lastCreateTime 上一页最后一条记录的创建时间，为空时查询第一页
+     * @param lastHistoryId  上一页最后一条记录ID，为空时查询第一页
+     * @param pageSize       每页条数
+     */
+    List<ApiManageHistory> selectApiManageHistoryPage(@Param("itemId") Long itemId, @Param("lastCreateTime") Date lastCreateTime,
+                                                      @Param("lastHistoryId") Long lastHistoryId, @Param("pageSize") int pageSize);
+
+    ApiManageHistory selectApiManageHistoryById(Long historyId);
+
     int insertApiManageHistory(ApiManageHistory history);
+
+    /**
+     * 查询早于指定时间的最早一条记录时间
+     */
+    Date selectApiManageHistoryOldestTime(Date beforeTime);
+
+    /**
+     * 尝试获取历史记录汇总的事务级应用锁（需在事务中调用）
+     *
+     * @return 大于等于 0 表示获得锁
+     */
+    int tryLockApiManageHistoryRollup();
+
+    /**
+     * 删除时间范围内的明细，并将被删除的明细按接口、日期汇总到日统计表
+     *
+     * @return 删除的明细条数
+     */
+    int rollupApiManageHistory(@Param("beginTime") Date beginTime, @Param("endTime") Date endTime);
 }
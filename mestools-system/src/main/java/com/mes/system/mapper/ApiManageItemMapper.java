@@ -1,8 +1,11 @@
 package com.mes.system.mapper;
 
 import com.mes.system.domain.ApiManageItem;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @Author: weiyiming
@@ -22,6 +25,10 @@ public interface ApiManageItemMapper {
     // 新增
     int insertApiManageItem(ApiManageItem apiManageItem);
 
+    // 批量新增，返回每行在列表中的序号(row_index)与生成的主键(item_id)
+    List<Map<String, Object>> batchInsertApiManageItem(@Param("list") List<ApiManageItem> list, @Param("createBy") String createBy,
+                                                       @Param("createTime") Date createTime);
+
     // 修改
     int updateApiManageItem(ApiManageItem apiManageItem);
 
@@ -0,0 +1,18 @@
+package com.mes.system.mapper;
+
+import com.mes.system.domain.ExecuteSqlHistory;
+
+import java.util.List;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: SQL执行分析历史记录
+ */
+public interface ExecuteSqlHistoryMapper {
+    List<ExecuteSqlHistory> selectExecuteSqlHistoryList(ExecuteSqlHistory history);
+
+    ExecuteSqlHistory selectExecuteSqlHistoryById(Long historyId);
+
+    int insertExecuteSqlHistory(ExecuteSqlHistory history);
+}
@@ -4,6 +4,8 @@ import com.mes.system.domain.QueryInfo;
 
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
+
 /**
  * @Author: weiyiming
  * @CreateTime: 2025-12-10
@@ -18,6 +20,14 @@ public interface QueryInfoMapper {
      */
     QueryInfo selectQueryInfoByInfoId(Integer infoId);
 
+    /**
+     * 查询资料库信息（不含资料内容）
+     *
+     * @param infoId
+     * @return
+     */
+    QueryInfo selectQueryInfoSummaryByInfoId(Integer infoId);
+
     /**
      * 通过标题查询资料
      *
@@ -26,6 +36,13 @@ public interface QueryInfoMapper {
      */
     QueryInfo selectByInfoTitle(String infoTitle);
 
+    /**
+     * 查询全部资料的ID与标题（用于导入判重）
+     *
+     * @return
+     */
+    List<QueryInfo> selectQueryInfoTitleList();
+
     /**
      * 查询资料库信息列表
      *
@@ -34,6 +51,56 @@ public interface QueryInfoMapper {
      */
     List<QueryInfo> selectQueryInfoList(QueryInfo queryInfo);
 
+    /**
+     * 查询资料库信息列表投影（不含资料内容，附带纯文本摘要）
+     *
+     * @param queryInfo
+     * @return
+     */
+    List<QueryInfo> selectQueryInfoSummaryList(QueryInfo queryInfo);
+
+    /**
+     * 全文检索资料库信息（按相关度排序）
+     *
+     * @param queryInfo
+     * @return
+     */
+    List<QueryInfo> selectQueryInfoSearch(QueryInfo queryInfo);
+
+    /**
+     * 按ID顺序分批查询尚未生成纯文本的资料（用于全文索引回填）
+     *
+     * @param lastInfoId 上一批最后一条资料ID
+     * @param pageSize   每批条数
+     * @return
+     */
+    List<QueryInfo> selectQueryInfoWithoutText(@Param("lastInfoId") Integer lastInfoId, @Param("pageSize") int pageSize);
+
+    /**
+     * 按ID顺序分批查询内容中包含内联base64图片的资料（用于图片转存）
+     *
+     * @param lastInfoId 上一批最后一条资料ID
+     * @param pageSize   每批条数
+     * @return
+     */
+    List<QueryInfo> selectQueryInfoWithInlineImages(@Param("lastInfoId") Integer lastInfoId, @Param("pageSize") int pageSize);
+
+    /**
+     * 更新资料内容（不修改更新时间，用于内联图片转存）
+     *
+     * @param queryInfo
+     * @return
+     */
+    int updateQueryInfoContent(QueryInfo queryInfo);
+
+    /**
+     * 更新资料内容的纯文本
+     *
+     * @param queryInfo
+     * @return
+     */
+    int updateQueryInfoText(QueryInfo queryInfo);
+
     /**
      * 新增资料库信息
      *
@@ -50,6 +117,14 @@ public interface QueryInfoMapper {
      */
     int updateQueryInfo(QueryInfo queryInfo);
 
+    /**
+     * 批量累加阅读次数（searchCount 为增量）
+     *
+     * @param increments
+     * @return
+     */
+    int batchIncreaseSearchCount(List<QueryInfo> increments);
+
     /**
      * 删除资料库信息
      *
@@ -0,0 +1,46 @@
+package com.mes.system.mapper;
+
+import com.mes.system.domain.QueryInfo;
+import com.mes.system.domain.QueryInfoTag;
+import com.mes.system.domain.vo.TagFacetVo;
+
+import java.util.List;
+
+/**
+ * @Author: weiyiming
+ * @CreateTime: 2026-10-19
+ * @Description: 资料标签索引的Mapper
+ */
+public interface QueryInfoTagMapper {
+    /**
+     * 批量新增资料标签
+     *
+     * @param tagList
+     * @return
+     */
+    int batchQueryInfoTag(List<QueryInfoTag> tagList);
+
+    /**
+     * 删除资料的全部标签
+     *
+     * @param infoId
+     * @return
+     */
+    int deleteQueryInfoTagByInfoId(Integer infoId);
+
+    /**
+     * 批量删除资料的全部标签
+     *
+     * @param infoIds
+     * @return
+     */
+    int deleteQueryInfoTagByInfoIds(Integer[] infoIds);
+
+    /**
+     * 标签分面统计
+     *
+     * @param queryInfo 资料类型、状态过滤条件
+     * @return
+     */
+    List<TagFacetVo> selectTagFacetList(QueryInfo queryInfo);
+}
@@ -2,10 +2,15 @@ package com.mes.system.service;
 
 import com.mes.system.domain.ApiManageHistory;
 import com.mes.system.domain.ApiManageItem;
+import com.mes.system.domain.dto.ApiManageImportDto;
+import com.mes.system.domain.dto.ApiRunnerDto;
 import com.mes.system.domain.dto.ProxyRequestDto;
+import com.mes.system.domain.vo.ApiRunReportVo;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @Author: weiyiming
@@ -29,14 +34,29 @@ public interface IApiManageService {
 
     List<ApiManageHistory> selectHistoryList(ApiManageHistory history);
 
+    // 游标分页查询历史记录（不含快照）
+    List<ApiManageHistory> selectHistoryPage(Long itemId, Date lastCreateTime, Long lastHistoryId, int pageSize);
+
+    // 查询历史记录详情（含解压后的快照）
+    ApiManageHistory selectHistoryById(Long historyId);
+
     int insertHistory(ApiManageHistory history);
 
+    // 历史记录异步写库状态（排队、已写入、丢弃、失败）
+    Map<String, Object> selectHistoryWriterStats();
+
     // 代理请求
     Map<String, Object> proxyRequest(ProxyRequestDto proxyRequest);
 
+    // 代理请求（非阻塞，等待下游响应期间不占用调用线程）
+    CompletableFuture<Map<String, Object>> proxyRequestAsync(ProxyRequestDto proxyRequest);
+
+    // 集合运行（目录批量执行 / 单接口多次迭代），统计吞吐量、延迟分位与错误率
+    CompletableFuture<ApiRunReportVo> runCollection(ApiRunnerDto runner);
+
     Map<String, Object> exportData();
 
-    void importData(Map<String, Object> data);
+    void importData(ApiManageImportDto data);
 
     int toggleLock(Long itemId, Integer isLocked);
 }
@@ -1,5 +1,10 @@
 package com.mes.system.service;
 
+import com.mes.system.domain.dto.BatchChangePwdDTO;
+import com.mes.system.domain.vo.ChangePwdResultVo;
+
+import java.util.List;
+
 /**
  * @Author: weiyiming
  * @CreateTime: 2025-12-07
@@ -8,4 +13,6 @@ package com.mes.system.service;
 public interface IChangePwdService {
 
     boolean changePwd(String fisNumber, String password, String dbDataSource);
+
+    List<ChangePwdResultVo> batchChangePwd(List<BatchChangePwdDTO.Account> accounts, String dbDataSource);
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.mes.system.service;
 
+import com.mes.system.domain.ExecuteSqlHistory;
+import com.mes.system.domain.vo.FanOutQueryVo;
+import com.mes.system.domain.vo.SqlPlanVo;
+
 import java.util.List;
 import java.util.Map;
 
@@ -17,4 +21,38 @@ public interface IExecuteSqlService {
     int executeInsert(String dbName, String sql);
 
     int executeDelete(String dbName, String sql);
-}
\ No newline at end of file
+
+    /**
+     * 在多个数据源上并发执行同一条已校验的查询语句，合并结果并标记来源数据库
+     *
+     * @param dbNames 数据源名称列表
+     * @param sql     查询语句
+     * @return 合并结果，部分数据源失败时返回其余数据源的结果
+     */
+    FanOutQueryVo executeFanOutQuery(List<String> dbNames, String sql);
+
+    /**
+     * 采集已校验查询语句的估算执行计划与 STATISTICS IO/TIME 统计信息，并保存到分析历史
+     *
+     * @param dbName 数据源名称
+     * @param sql    查询语句
+     * @return 结构化的分析结果
+     */
+    SqlPlanVo analyzeQuery(String dbName, String sql);
+
+    /**
+     * 查询SQL分析历史列表（不含执行计划XML）
+     *
+     * @param history 查询条件
+     * @return 分析历史集合
+     */
+    List<ExecuteSqlHistory> selectExecuteSqlHistoryList(ExecuteSqlHistory history);
+
+    /**
+     * 根据ID查询SQL分析历史详情
+     *
+     * @param historyId 历史记录ID
+     * @return 分析历史
+     */
+    ExecuteSqlHistory selectExecuteSqlHistoryById(Long historyId);
+}
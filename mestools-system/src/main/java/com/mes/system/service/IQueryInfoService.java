@@ -1,6 +1,7 @@
 package com.mes.system.service;
 
 import com.mes.system.domain.QueryInfo;
+import com.mes.system.domain.vo.TagFacetVo;
 
 import java.util.List;
 
@@ -13,8 +14,18 @@ public interface IQueryInfoService {
 
     List<QueryInfo> selectQueryInfoList(QueryInfo queryInfo);
 
+    List<QueryInfo> selectQueryInfoSummaryList(QueryInfo queryInfo);
+
+    List<QueryInfo> selectQueryInfoSearch(QueryInfo queryInfo);
+
+    List<TagFacetVo> selectTagFacetList(QueryInfo queryInfo);
+
     QueryInfo selectQueryInfoByInfoId(Integer infoId);
 
+    QueryInfo selectQueryInfoSummaryByInfoId(Integer infoId);
+
+    void increaseSearchCount(Integer infoId);
+
     int insertQueryInfo(QueryInfo queryInfo);
 
     int updateQueryInfo(QueryInfo queryInfo);
@@ -24,4 +35,18 @@ public interface IQueryInfoService {
     int deleteQueryInfoByInfoId(Integer infoId);
 
     String importQueryInfo(List<QueryInfo> queryInfoList, boolean updateSupport, String operName);
+
+    /**
+     * 分批回填尚未生成纯文本的历史资料（全文检索升级后手动执行一次）
+     *
+     * @return 回填条数
+     */
+    int backfillInfoText();
+
+    /**
+     * 分批将历史资料中的内联base64图片转存为附件（升级后手动执行一次）
+     *
+     * @return 转存条数
+     */
+    int externalizeInlineImages();
 }
@@ -1,5 +1,6 @@
 package com.mes.system.service;
 
+import java.time.Duration;
 import java.util.List;
 
 import com.mes.system.domain.SysConfig;
@@ -26,6 +27,33 @@ public interface ISysConfigService {
      */
     public String selectConfigByKey(String configKey);
 
+    /**
+     * 根据键名查询布尔类型参数
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    public boolean selectConfigBoolean(String configKey, boolean defaultValue);
+
+    /**
+     * 根据键名查询整数类型参数
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    public int selectConfigInt(String configKey, int defaultValue);
+
+    /**
+     * 根据键名查询时长类型参数（支持 30s、10m、PT1H 等格式，纯数字按毫秒）
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    public Duration selectConfigDuration(String configKey, Duration defaultValue);
+
     /**
      * 获取验证码开关
      *
@@ -43,6 +43,14 @@ public interface ISysUserService {
      */
     public SysUser selectUserByUserName(String userName);
 
+    /**
+     * 通过用户名查询登录用户，一次查询带出部门、角色及角色菜单权限
+     *
+     * @param userName 用户名
+     * @return 用户对象信息
+     */
+    public SysUser selectLoginUserByUserName(String userName);
+
     /**
      * 通过用户ID查询用户
      *
@@ -1,21 +1,49 @@
 package com.mes.system.service.impl;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
 import com.mes.common.utils.DateUtils;
+import com.mes.common.utils.GzipUtils;
 import com.mes.common.exception.ServiceException;
 import com.mes.common.utils.SecurityUtils;
 import com.mes.common.utils.StringUtils;
 import com.mes.system.domain.ApiManageHistory;
 import com.mes.system.domain.ApiManageItem;
+import com.mes.system.domain.dto.ApiManageImportDto;
+import com.mes.system.domain.dto.ApiRunnerDto;
 import com.mes.system.domain.dto.ProxyRequestDto;
+import com.mes.system.domain.vo.ApiRunReportVo;
 import com.mes.system.mapper.ApiManageHistoryMapper;
 import com.mes.system.mapper.ApiManageItemMapper;
 import com.mes.system.service.IApiManageService;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
@@ -23,9 +51,23 @@ import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +80,62 @@ public class ApiManageServiceImpl implements IApiManageService {
 
     private static final Logger logger = LoggerFactory.getLogger(ApiManageServiceImpl.class);
 
+    /**
+     * 集合运行最大并发数
+     */
+    private static final int RUNNER_MAX_CONCURRENCY = 100;
+
+    /**
+     * 集合运行最大爬坡时间（秒）
+     */
+    private static final int RUNNER_MAX_RAMP_UP_SECONDS = 300;
+
+    /**
+     * 单次集合运行最大请求数
+     */
+    private static final int RUNNER_MAX_REQUESTS = 10000;
+
+    /**
+     * 报告中保留的错误样例数
+     */
+    private static final int RUNNER_ERROR_SAMPLES = 20;
+
+    /**
+     * 导入时每批插入的节点数（每行18个参数，受 SQL Server 单语句2100个参数限制）
+     */
+    private static final int IMPORT_BATCH_SIZE = 100;
+
+    /**
+     * 历史记录队列容量
+     */
+    private static final int HISTORY_QUEUE_CAPACITY = 10000;
+
+    /**
+     * 历史记录每批写库条数
+     */
+    private static final int HISTORY_BATCH_SIZE = 500;
+
+    /**
+     * 历史记录写库间隔（毫秒）
+     */
+    private static final long HISTORY_FLUSH_MILLIS = 1000;
+
+    /**
+     * 队列满时每丢弃多少条打印一次告警
+     */
+    private static final long HISTORY_DROP_LOG_INTERVAL = 1000;
+
+    /**
+     * 过期历史清理检查间隔（分钟）
+     */
+    private static final long HISTORY_CLEAN_INTERVAL_MINUTES = 60;
+
+    private static final String INSERT_HISTORY_SQL = "INSERT INTO api_manage_history (item_id, req_method, req_url, res_status, "
+            + "duration, snapshot_gzip, create_time) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_HISTORY_TYPES = {Types.BIGINT, Types.NVARCHAR, Types.NVARCHAR, Types.INTEGER,
+            Types.INTEGER, Types.VARBINARY, Types.TIMESTAMP};
+
     @Autowired
     private ApiManageItemMapper apiManageItemMapper;
 
@@ -47,6 +145,72 @@ public class ApiManageServiceImpl implements IApiManageService {
     @Autowired
     private RestTemplate restTemplate; // 需确保 Spring 容器中有 RestTemplate Bean
 
+    @Autowired
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 历史记录保留天数，0 表示不清理
+     */
+    @Value("${apiManage.history.retainDays:30}")
+    private int historyRetainDays;
+
+    /**
+     * 建立连接超时（毫秒），与接口代理连接池配置一致
+     */
+    @Value("${httpclient.connectTimeout:10000}")
+    private int connectTimeout;
+
+    /**
+     * 读取超时（毫秒），与接口代理连接池配置一致
+     */
+    @Value("${httpclient.readTimeout:10000}")
+    private int readTimeout;
+
+    /**
+     * 待写库的历史记录（有界队列）
+     */
+    private final BlockingQueue<ApiManageHistory> pendingHistories = new ArrayBlockingQueue<>(HISTORY_QUEUE_CAPACITY);
+
+    private final AtomicLong writtenHistoryCount = new AtomicLong();
+
+    private final AtomicLong droppedHistoryCount = new AtomicLong();
+
+    private final AtomicLong failedHistoryCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                flushHistories();
+            } catch (Exception e) {
+                logger.error("接口历史记录写库任务异常", e);
+            }
+        }, HISTORY_FLUSH_MILLIS, HISTORY_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        scheduledExecutorService.scheduleWithFixedDelay(() -> {
+            try {
+                cleanExpiredHistories();
+            } catch (Exception e) {
+                logger.error("接口历史记录清理任务异常", e);
+            }
+        }, HISTORY_CLEAN_INTERVAL_MINUTES, HISTORY_CLEAN_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 应用关闭前写完队列中剩余的历史记录
+        flushHistories();
+    }
+
     @Override
     public List<ApiManageItem> selectApiTree() {
         List<ApiManageItem> list = apiManageItemMapper.selectApiTreeList();
@@ -110,9 +274,27 @@ public class ApiManageServiceImpl implements IApiManageService {
         return apiManageHistoryMapper.selectApiManageHistoryList(history);
     }
 
+    @Override
+    public List<ApiManageHistory> selectHistoryPage(Long itemId, Date lastCreateTime, Long lastHistoryId, int pageSize) {
+        return apiManageHistoryMapper.selectApiManageHistoryPage(itemId, lastCreateTime, lastHistoryId, pageSize);
+    }
+
+    @Override
+    public ApiManageHistory selectHistoryById(Long historyId) {
+        ApiManageHistory history = apiManageHistoryMapper.selectApiManageHistoryById(historyId);
+        if (history != null && history.getSnapshotGzip() != null) {
+            history.setSnapshotJson(GzipUtils.decompress(history.getSnapshotGzip()));
+            history.setSnapshotGzip(null);
+        }
+        return history;
+    }
+
     @Override
     public int insertHistory(ApiManageHistory history) {
         history.setCreateTime(DateUtils.getNowDate());
+        // 快照压缩存储
+        history.setSnapshotGzip(GzipUtils.compress(history.getSnapshotJson()));
+        history.setSnapshotJson(null);
         return apiManageHistoryMapper.insertApiManageHistory(history);
     }
 
@@ -183,32 +365,630 @@ public class ApiManageServiceImpl implements IApiManageService {
         } catch (Exception e) {
             // 其他错误
             resStatus = 0;
-            result.put("status", 0);
-            result.put("statusText", "Error");
-            result.put("data", "Proxy Error: " + e.getMessage());
-            logger.error("代理请求异常", e);
+            result = buildProxyErrorResult(e);
         } finally {
             // 6. 统一记录历史 (放在 finally 块中确保无论成功失败都记录)
+            saveProxyHistory(dto, finalUrl, resStatus, startTime);
+        }
+
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> proxyRequestAsync(ProxyRequestDto dto) {
+        long startTime = System.currentTimeMillis();
+        validateUrl(dto.getUrl());
+
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        String finalUrl = dto.getUrl();
+        HttpUriRequest request;
+        try {
+            if (dto.getParams() != null && !dto.getParams().isEmpty()) {
+                UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(finalUrl);
+                dto.getParams().forEach(uriBuilder::queryParam);
+                finalUrl = uriBuilder.build().toUriString();
+            }
+            request = buildAsyncRequest(dto, finalUrl);
+        } catch (Exception e) {
+            saveProxyHistory(dto, finalUrl, 0, startTime);
+            future.complete(buildProxyErrorResult(e));
+            return future;
+        }
+
+        String historyUrl = finalUrl;
+        // 回调运行在 HTTP 客户端的 IO 线程上，历史记录仅入队不写库，不会阻塞 IO 线程
+        Future<HttpResponse> httpFuture = httpAsyncClient.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                int resStatus = response.getStatusLine().getStatusCode();
+                Map<String, Object> result;
+                try {
+                    result = buildProxyResult(response);
+                } catch (Exception e) {
+                    result = buildProxyErrorResult(e);
+                }
+                saveProxyHistory(dto, historyUrl, resStatus, startTime);
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                saveProxyHistory(dto, historyUrl, 0, startTime);
+                future.complete(buildProxyErrorResult(e));
+            }
+
+            @Override
+            public void cancelled() {
+                saveProxyHistory(dto, historyUrl, 0, startTime);
+                future.cancel(false);
+            }
+        });
+        // 调用方取消（如请求超时）时同步中断下游请求，释放连接
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                httpFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<ApiRunReportVo> runCollection(ApiRunnerDto runner) {
+        int iterations = runner.getIterations() != null ? runner.getIterations() : 1;
+        int concurrency = runner.getConcurrency() != null ? runner.getConcurrency() : 1;
+        int rampUpSeconds = runner.getRampUpSeconds() != null ? runner.getRampUpSeconds() : 0;
+        if (iterations < 1 || concurrency < 1 || concurrency > RUNNER_MAX_CONCURRENCY || rampUpSeconds < 0 || rampUpSeconds > RUNNER_MAX_RAMP_UP_SECONDS) {
+            throw new ServiceException("运行参数不合法：迭代次数需大于0，并发数范围1~" + RUNNER_MAX_CONCURRENCY + "，爬坡时间范围0~" + RUNNER_MAX_RAMP_UP_SECONDS + "秒");
+        }
+
+        List<ApiManageItem> items = resolveRunItems(runner);
+        if (items.isEmpty()) {
+            throw new ServiceException("没有可执行的接口");
+        }
+        if ((long) items.size() * iterations > RUNNER_MAX_REQUESTS) {
+            throw new ServiceException("单次运行请求总数不能超过" + RUNNER_MAX_REQUESTS);
+        }
+
+        ApiManageItem env = null;
+        if (runner.getEnvId() != null) {
+            env = apiManageItemMapper.selectApiManageItemById(runner.getEnvId());
+            if (env == null || !"env".equals(env.getItemType())) {
+                throw new ServiceException("环境不存在或已被删除");
+            }
+        }
+        List<ProxyRequestDto> requests = new ArrayList<>(items.size());
+        for (ApiManageItem item : items) {
+            ProxyRequestDto dto = toProxyRequest(item, env);
+            validateUrl(dto.getUrl());
+            requests.add(dto);
+        }
+
+        int total = items.size() * iterations;
+        int users = Math.min(concurrency, total);
+        CloseableHttpAsyncClient runnerClient = createRunnerClient(users);
+        CollectionRun run = new CollectionRun(runnerClient, items, requests, total);
+        // 运行结束或被取消后关闭专用客户端；完成回调可能在客户端的IO线程上执行，关闭需交给其他线程
+        run.future.whenComplete((report, e) -> scheduledExecutorService.execute(() -> closeRunnerClient(runnerClient)));
+        // 并发用户在爬坡时间内均匀启动
+        long rampUpMillis = TimeUnit.SECONDS.toMillis(rampUpSeconds);
+        for (int i = 0; i < users; i++) {
+            scheduledExecutorService.schedule(run::next, rampUpMillis * i / users, TimeUnit.MILLISECONDS);
+        }
+        return run.future;
+    }
+
+    /**
+     * 创建集合运行专用的异步客户端，连接数与并发数一致，请求无需排队等待连接，
+     * 统计的延迟与错误率只反映下游接口，也不占用交互式接口代理的连接池
+     */
+    private CloseableHttpAsyncClient createRunnerClient(int concurrency) {
+        try {
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                    .setIoThreadCount(Math.min(concurrency, Runtime.getRuntime().availableProcessors()))
+                    .setConnectTimeout(connectTimeout)
+                    .setSoTimeout(readTimeout)
+                    .build();
+            PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+            connectionManager.setMaxTotal(concurrency);
+            connectionManager.setDefaultMaxPerRoute(concurrency);
+            CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout(connectTimeout)
+                            .setSocketTimeout(readTimeout)
+                            .build())
+                    .disableCookieManagement()
+                    .build();
+            client.start();
+            return client;
+        } catch (IOException e) {
+            logger.error("创建集合运行客户端失败", e);
+            throw new ServiceException("创建集合运行客户端失败：" + e.getMessage());
+        }
+    }
+
+    private void closeRunnerClient(CloseableHttpAsyncClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.warn("关闭集合运行客户端失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 解析待运行的接口：目录下按树顺序收集全部接口，或单个接口
+     */
+    private List<ApiManageItem> resolveRunItems(ApiRunnerDto runner) {
+        List<ApiManageItem> items = new ArrayList<>();
+        if (runner.getItemId() != null) {
+            ApiManageItem item = apiManageItemMapper.selectApiManageItemById(runner.getItemId());
+            if (item == null || !"api".equals(item.getItemType())) {
+                throw new ServiceException("接口不存在或已被删除");
+            }
+            items.add(item);
+        } else if (runner.getFolderId() != null) {
+            ApiManageItem folder = findNode(selectApiTree(), runner.getFolderId());
+            if (folder == null) {
+                throw new ServiceException("目录不存在或已被删除");
+            }
+            collectApiItems(folder.getChildren(), items);
+        } else {
+            throw new ServiceException("请选择要运行的目录或接口");
+        }
+        return items;
+    }
+
+    private ApiManageItem findNode(List<ApiManageItem> nodes, Long itemId) {
+        for (ApiManageItem node : nodes) {
+            if (itemId.equals(node.getItemId())) {
+                return node;
+            }
+            ApiManageItem found = findNode(node.getChildren(), itemId);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private void collectApiItems(List<ApiManageItem> nodes, List<ApiManageItem> items) {
+        for (ApiManageItem node : nodes) {
+            if ("api".equals(node.getItemType())) {
+                items.add(node);
+            }
+            collectApiItems(node.getChildren(), items);
+        }
+    }
+
+    /**
+     * 将保存的接口定义转换为代理请求，替换环境变量、路径参数并拼接 Query 参数
+     */
+    private ProxyRequestDto toProxyRequest(ApiManageItem item, ApiManageItem env) {
+        Map<String, String> variables = env != null ? parseKeyValues(env.getReqBodyJson()) : Collections.emptyMap();
+        String url = replaceVariables(item.getReqUrl(), variables);
+        for (Map.Entry<String, String> pathParam : parseKeyValues(item.getReqPathParams()).entrySet()) {
+            String value = replaceVariables(pathParam.getValue(), variables);
+            url = url.replace("{" + pathParam.getKey() + "}", value).replace("/:" + pathParam.getKey(), "/" + value);
+        }
+        if (env != null && StringUtils.isNotEmpty(env.getReqUrl()) && !StringUtils.startsWithAny(url.toLowerCase(), "http://", "https://")) {
+            url = StringUtils.removeEnd(env.getReqUrl(), "/") + "/" + StringUtils.removeStart(url, "/");
+        }
+
+        Map<String, String> params = parseKeyValues(item.getReqParams());
+        if (!params.isEmpty()) {
+            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(url);
+            params.forEach((k, v) -> uriBuilder.queryParam(k, replaceVariables(v, variables)));
+            url = uriBuilder.build().toUriString();
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        parseKeyValues(item.getReqHeaders()).forEach((k, v) -> headers.put(k, replaceVariables(v, variables)));
+        if ("bearer".equalsIgnoreCase(item.getAuthType()) && StringUtils.isNotEmpty(item.getAuthToken())) {
+            headers.putIfAbsent(HttpHeaders.AUTHORIZATION, "Bearer " + replaceVariables(item.getAuthToken(), variables));
+        }
+
+        ProxyRequestDto dto = new ProxyRequestDto();
+        dto.setItemId(item.getItemId());
+        dto.setMethod(StringUtils.isNotEmpty(item.getReqMethod()) ? item.getReqMethod() : HttpMethod.GET.name());
+        dto.setUrl(url);
+        dto.setHeaders(headers);
+        dto.setBodyType(item.getReqBodyType());
+        if ("form".equals(item.getReqBodyType())) {
+            Map<String, Object> form = new LinkedHashMap<>();
+            parseKeyValues(item.getReqFormData()).forEach((k, v) -> form.put(k, replaceVariables(v, variables)));
+            dto.setBody(form);
+        } else if (StringUtils.isNotEmpty(item.getReqBodyJson()) && !"none".equals(item.getReqBodyType())) {
+            dto.setBody(replaceVariables(item.getReqBodyJson(), variables));
+        }
+        return dto;
+    }
+
+    /**
+     * 解析键值对 JSON，兼容对象格式 {"k":"v"} 与列表格式 [{"key":"k","value":"v","enabled":true}]
+     */
+    private Map<String, String> parseKeyValues(String json) {
+        Map<String, String> map = new LinkedHashMap<>();
+        if (StringUtils.isEmpty(json)) {
+            return map;
+        }
+        Object parsed;
+        try {
+            parsed = JSON.parse(json);
+        } catch (Exception e) {
+            return map;
+        }
+        if (parsed instanceof JSONObject) {
+            ((JSONObject) parsed).forEach((k, v) -> map.put(k, v == null ? "" : String.valueOf(v)));
+        } else if (parsed instanceof JSONArray) {
+            for (Object element : (JSONArray) parsed) {
+                if (!(element instanceof JSONObject)) {
+                    continue;
+                }
+                JSONObject pair = (JSONObject) element;
+                String key = pair.getString("key");
+                if (StringUtils.isEmpty(key) || Boolean.FALSE.equals(pair.getBoolean("enabled"))) {
+                    continue;
+                }
+                map.put(key, StringUtils.defaultString(pair.getString("value")));
+            }
+        }
+        return map;
+    }
+
+    private String replaceVariables(String text, Map<String, String> variables) {
+        if (StringUtils.isEmpty(text) || variables.isEmpty() || !text.contains("{{")) {
+            return text;
+        }
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            text = text.replace("{{" + variable.getKey() + "}}", variable.getValue());
+        }
+        return text;
+    }
+
+    /**
+     * 一次集合运行：每个并发用户完成一个请求后立即领取下一个，请求在运行专用客户端的 IO 线程上回调，不占用业务线程
+     */
+    private class CollectionRun {
+        private final CloseableHttpAsyncClient client;
+        private final List<ApiManageItem> items;
+        private final List<ProxyRequestDto> requests;
+        private final int total;
+        private final long[] latencies;
+        private final int[] statuses;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final Queue<String> errorSamples = new ConcurrentLinkedQueue<>();
+        private final CompletableFuture<ApiRunReportVo> future = new CompletableFuture<>();
+        private final long startTime = System.nanoTime();
+
+        CollectionRun(CloseableHttpAsyncClient client, List<ApiManageItem> items, List<ProxyRequestDto> requests, int total) {
+            this.client = client;
+            this.items = items;
+            this.requests = requests;
+            this.total = total;
+            this.latencies = new long[total];
+            this.statuses = new int[total];
+        }
+
+        /**
+         * 同一线程上进行中的 next() 调用尚需领取的次数，非空表示当前线程已在领取循环中
+         */
+        private final ThreadLocal<int[]> pendingDispatches = new ThreadLocal<>();
+
+        /**
+         * 领取下一个请求并发出；回调在发出请求的线程上同步执行时，交由外层循环继续领取，避免递归
+         */
+        void next() {
+            int[] pending = pendingDispatches.get();
+            if (pending != null) {
+                pending[0]++;
+                return;
+            }
+            pending = new int[]{1};
+            pendingDispatches.set(pending);
             try {
-                ApiManageHistory history = new ApiManageHistory();
-                history.setItemId(dto.getItemId());
-                history.setReqMethod(dto.getMethod());
-                history.setReqUrl(finalUrl); // 使用包含参数的完整URL
-                history.setResStatus(resStatus);
-                history.setDuration((int) (System.currentTimeMillis() - startTime));
-                if (StringUtils.isNotEmpty(dto.getSnapshotJson())) {
-                    history.setSnapshotJson(dto.getSnapshotJson());
+                while (pending[0] > 0) {
+                    pending[0]--;
+                    dispatch();
                 }
-                apiManageHistoryMapper.insertApiManageHistory(history);
-            } catch (Exception ex) {
-                // 忽略历史记录保存失败，避免影响主流程
-                logger.error("保存接口历史记录失败: {}", ex.getMessage());
+            } finally {
+                pendingDispatches.remove();
             }
         }
 
+        /**
+         * 循环领取序号直到成功发出一个请求，构建请求失败时记录错误后继续领取
+         */
+        private void dispatch() {
+            // 调用方取消（如超时）后不再发出新请求
+            while (!future.isDone()) {
+                int index = nextIndex.getAndIncrement();
+                if (index >= total) {
+                    return;
+                }
+                ProxyRequestDto dto = requests.get(index % requests.size());
+                long requestStart = System.nanoTime();
+                HttpUriRequest request;
+                try {
+                    request = buildAsyncRequest(dto, dto.getUrl());
+                } catch (Exception e) {
+                    record(index, 0, requestStart, e.getMessage());
+                    continue;
+                }
+                client.execute(request, new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        int status = response.getStatusLine().getStatusCode();
+                        EntityUtils.consumeQuietly(response.getEntity());
+                        record(index, status, requestStart, status >= 400 ? status + " " + response.getStatusLine().getReasonPhrase() : null);
+                        next();
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        record(index, 0, requestStart, e.getMessage());
+                        next();
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        record(index, 0, requestStart, "Cancelled");
+                        next();
+                    }
+                });
+                return;
+            }
+        }
+
+        private void record(int index, int status, long requestStart, String error) {
+            latencies[index] = System.nanoTime() - requestStart;
+            statuses[index] = status;
+            if (error != null && errorSamples.size() < RUNNER_ERROR_SAMPLES) {
+                errorSamples.add(items.get(index % items.size()).getItemName() + ": " + error);
+            }
+            if (completed.incrementAndGet() == total) {
+                future.complete(buildReport());
+            }
+        }
+
+        private ApiRunReportVo buildReport() {
+            ApiRunReportVo report = new ApiRunReportVo();
+            long totalNanos = System.nanoTime() - startTime;
+            int errorCount = 0;
+            for (int status : statuses) {
+                report.getStatusCounts().merge(status, 1, Integer::sum);
+                if (isRunError(status)) {
+                    errorCount++;
+                }
+            }
+            report.setTotalRequests(total);
+            report.setErrorCount(errorCount);
+            report.setErrorRate(Math.round(errorCount * 10000.0 / total) / 100.0);
+            report.setTotalTime(TimeUnit.NANOSECONDS.toMillis(totalNanos));
+            report.setThroughput(Math.round(total * 1e11 / totalNanos) / 100.0);
+            report.setLatency(latencyStats(latencies));
+            report.getErrorSamples().addAll(errorSamples);
+
+            int size = items.size();
+            for (int i = 0; i < size; i++) {
+                long[] itemLatencies = new long[(total - i + size - 1) / size];
+                ApiRunReportVo.ItemStats stats = new ApiRunReportVo.ItemStats();
+                int itemErrors = 0;
+                for (int index = i, n = 0; index < total; index += size, n++) {
+                    itemLatencies[n] = latencies[index];
+                    if (isRunError(statuses[index])) {
+                        itemErrors++;
+                    }
+                }
+                stats.setItemId(items.get(i).getItemId());
+                stats.setItemName(items.get(i).getItemName());
+                stats.setCount(itemLatencies.length);
+                stats.setErrorCount(itemErrors);
+                stats.setLatency(latencyStats(itemLatencies));
+                report.getItems().add(stats);
+            }
+            return report;
+        }
+    }
+
+    private static boolean isRunError(int status) {
+        return status == 0 || status >= 400;
+    }
+
+    /**
+     * 延迟统计（毫秒），百分位采用最近秩法
+     */
+    private static ApiRunReportVo.LatencyStats latencyStats(long[] nanos) {
+        ApiRunReportVo.LatencyStats stats = new ApiRunReportVo.LatencyStats();
+        if (nanos.length == 0) {
+            return stats;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long value : sorted) {
+            sum += value;
+        }
+        stats.setMin(toMillis(sorted[0]));
+        stats.setMax(toMillis(sorted[sorted.length - 1]));
+        stats.setAvg(toMillis(sum / sorted.length));
+        stats.setP50(toMillis(percentile(sorted, 50)));
+        stats.setP90(toMillis(percentile(sorted, 90)));
+        stats.setP99(toMillis(percentile(sorted, 99)));
+        return stats;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10000.0) / 100.0;
+    }
+
+    /**
+     * 构造异步代理请求，请求体的处理与 RestTemplate 保持一致
+     */
+    private HttpUriRequest buildAsyncRequest(ProxyRequestDto dto, String finalUrl) {
+        String method = dto.getMethod().toUpperCase();
+        RequestBuilder builder = RequestBuilder.create(method).setUri(finalUrl);
+        HttpHeaders headers = new HttpHeaders();
+        if (dto.getHeaders() != null) {
+            dto.getHeaders().forEach(headers::add);
+        }
+        // 长度与传输编码由客户端根据实际请求体生成
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+
+        Object body = dto.getBody();
+        // GET/HEAD 等请求与 RestTemplate 一致不携带请求体
+        boolean hasBody = body != null && !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method) && !HttpMethod.TRACE.matches(method);
+        if (hasBody) {
+            String content;
+            if ("form".equals(dto.getBodyType()) && body instanceof Map) {
+                List<NameValuePair> pairs = new ArrayList<>();
+                ((Map<?, ?>) body).forEach((k, v) -> pairs.add(new BasicNameValuePair(String.valueOf(k), v == null ? "" : String.valueOf(v))));
+                content = URLEncodedUtils.format(pairs, StandardCharsets.UTF_8);
+                if (!headers.containsKey(HttpHeaders.CONTENT_TYPE) || MediaType.APPLICATION_JSON.equals(headers.getContentType()) || MediaType.APPLICATION_JSON_UTF8.equals(headers.getContentType())) {
+                    headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                }
+            } else if (body instanceof String) {
+                content = (String) body;
+            } else {
+                content = JSON.toJSONString(body);
+                if (!headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                }
+            }
+            builder.setEntity(new StringEntity(content, StandardCharsets.UTF_8));
+        }
+        headers.forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        return builder.build();
+    }
+
+    /**
+     * 将异步响应转换为与同步代理一致的结果结构
+     */
+    private Map<String, Object> buildProxyResult(HttpResponse response) throws IOException {
+        Map<String, Object> result = new HashMap<>();
+        int resStatus = response.getStatusLine().getStatusCode();
+        String data = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : null;
+        result.put("status", resStatus);
+        if (resStatus >= 400) {
+            result.put("statusText", response.getStatusLine().getReasonPhrase());
+            result.put("data", data);
+            result.put("size", (data != null ? data.length() : 0) + " B");
+            return result;
+        }
+        HttpStatus httpStatus = HttpStatus.resolve(resStatus);
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        result.put("statusText", httpStatus != null ? httpStatus.name() : response.getStatusLine().getReasonPhrase());
+        result.put("headers", headers);
+        result.put("data", data);
+        result.put("size", data != null ? data.length() + " B" : "0 B");
+        return result;
+    }
+
+    private Map<String, Object> buildProxyErrorResult(Exception e) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", 0);
+        result.put("statusText", "Error");
+        result.put("data", "Proxy Error: " + e.getMessage());
+        logger.error("代理请求异常", e);
         return result;
     }
 
+    /**
+     * 记录代理请求历史：放入内存队列由后台批量写库，队列已满时丢弃并计数，不影响主流程
+     */
+    private void saveProxyHistory(ProxyRequestDto dto, String finalUrl, int resStatus, long startTime) {
+        ApiManageHistory history = new ApiManageHistory();
+        history.setItemId(dto.getItemId());
+        history.setReqMethod(dto.getMethod());
+        history.setReqUrl(finalUrl); // 使用包含参数的完整URL
+        history.setResStatus(resStatus);
+        history.setDuration((int) (System.currentTimeMillis() - startTime));
+        if (StringUtils.isNotEmpty(dto.getSnapshotJson())) {
+            history.setSnapshotJson(dto.getSnapshotJson());
+        }
+        // 延迟写库，创建时间取请求完成时刻
+        history.setCreateTime(DateUtils.getNowDate());
+        if (!pendingHistories.offer(history)) {
+            long dropped = droppedHistoryCount.incrementAndGet();
+            if (dropped % HISTORY_DROP_LOG_INTERVAL == 1) {
+                logger.warn("接口历史记录队列已满，累计丢弃 {} 条", dropped);
+            }
+        }
+    }
+
+    /**
+     * 将队列中的历史记录按批写库
+     */
+    public synchronized void flushHistories() {
+        List<ApiManageHistory> batch = new ArrayList<>(HISTORY_BATCH_SIZE);
+        while (pendingHistories.drainTo(batch, HISTORY_BATCH_SIZE) > 0) {
+            List<Object[]> batchArgs = new ArrayList<>(batch.size());
+            for (ApiManageHistory history : batch) {
+                batchArgs.add(new Object[]{history.getItemId(), history.getReqMethod(), history.getReqUrl(),
+                        history.getResStatus(), history.getDuration(), GzipUtils.compress(history.getSnapshotJson()), history.getCreateTime()});
+            }
+            try {
+                jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, batchArgs, INSERT_HISTORY_TYPES);
+                writtenHistoryCount.addAndGet(batch.size());
+            } catch (Exception e) {
+                // 写库失败的批次不重试，避免异常数据反复阻塞队列
+                failedHistoryCount.addAndGet(batch.size());
+                logger.error("批量保存接口历史记录失败: {}", e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 清理超过保留天数的历史明细：按天汇总到 api_manage_history_daily 后删除，每天一个事务
+     */
+    public void cleanExpiredHistories() {
+        if (historyRetainDays <= 0) {
+            return;
+        }
+        Date cutoff = DateUtils.truncate(DateUtils.addDays(DateUtils.getNowDate(), -historyRetainDays), Calendar.DATE);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Date oldest;
+        while ((oldest = apiManageHistoryMapper.selectApiManageHistoryOldestTime(cutoff)) != null) {
+            Date beginTime = DateUtils.truncate(oldest, Calendar.DATE);
+            Date endTime = DateUtils.addDays(beginTime, 1);
+            Integer deleted = transactionTemplate.execute(status -> {
+                // 多节点同时执行时，未获得应用锁的节点跳过本轮
+                if (apiManageHistoryMapper.tryLockApiManageHistoryRollup() < 0) {
+                    return null;
+                }
+                return apiManageHistoryMapper.rollupApiManageHistory(beginTime, endTime);
+            });
+            if (deleted == null) {
+                logger.info("接口历史记录汇总正由其他节点执行，本轮跳过");
+                return;
+            }
+            logger.info("接口历史记录 {} 已汇总并清理 {} 条", DateUtils.parseDateToStr(DateUtils.YYYY_MM_DD, beginTime), deleted);
+        }
+    }
+
+    @Override
+    public Map<String, Object> selectHistoryWriterStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", pendingHistories.size());
+        stats.put("capacity", HISTORY_QUEUE_CAPACITY);
+        stats.put("written", writtenHistoryCount.get());
+        stats.put("dropped", droppedHistoryCount.get());
+        stats.put("failed", failedHistoryCount.get());
+        stats.put("retainDays", historyRetainDays);
+        return stats;
+    }
+
     @Override
     public Map<String, Object> exportData() {
         Map<String, Object> data = new HashMap<>();
@@ -219,29 +999,32 @@ public class ApiManageServiceImpl implements IApiManageService {
 
     @Override
     @Transactional
-    public void importData(Map<String, Object> data) {
+    public void importData(ApiManageImportDto data) {
         String username = SecurityUtils.getUsername();
+        Date now = DateUtils.getNowDate();
         // 1. 导入环境
-        if (data.containsKey("envs")) {
-            String json = com.alibaba.fastjson2.JSON.toJSONString(data.get("envs"));
-            List<ApiManageItem> envList = com.alibaba.fastjson2.JSON.parseArray(json, ApiManageItem.class);
-            if (envList != null) {
-                for (ApiManageItem item : envList) {
-                    item.setItemId(null); // 重置ID，作为新数据插入
-                    item.setCreateBy(username);
-                    item.setCreateTime(DateUtils.getNowDate());
-                    apiManageItemMapper.insertApiManageItem(item);
-                }
-            }
+        if (data.getEnvs() != null && !data.getEnvs().isEmpty()) {
+            batchInsertItems(data.getEnvs(), username, now);
         }
 
-        // 2. 导入接口树 (递归)
-        if (data.containsKey("tree")) {
-            String json = com.alibaba.fastjson2.JSON.toJSONString(data.get("tree"));
-            List<ApiManageItem> treeList = com.alibaba.fastjson2.JSON.parseArray(json, ApiManageItem.class);
-            if (treeList != null) {
-                importTreeNodes(treeList, 0L, username);
+        // 2. 导入接口树：按层批量插入，每层取回主键后作为下一层的父ID
+        List<ApiManageItem> level = data.getTree() != null ? data.getTree() : Collections.emptyList();
+        for (ApiManageItem node : level) {
+            node.setParentId(0L);
+        }
+        while (!level.isEmpty()) {
+            batchInsertItems(level, username, now);
+            List<ApiManageItem> nextLevel = new ArrayList<>();
+            for (ApiManageItem node : level) {
+                if (node.getChildren() == null) {
+                    continue;
+                }
+                for (ApiManageItem child : node.getChildren()) {
+                    child.setParentId(node.getItemId());
+                    nextLevel.add(child);
+                }
             }
+            level = nextLevel;
         }
     }
 
@@ -255,16 +1038,16 @@ public class ApiManageServiceImpl implements IApiManageService {
         return apiManageItemMapper.updateApiManageItem(item);
     }
 
-    private void importTreeNodes(List<ApiManageItem> nodes, Long parentId, String username) {
-        for (ApiManageItem node : nodes) {
-            node.setItemId(null);
-            node.setParentId(parentId);
-            node.setCreateBy(username);
-            node.setCreateTime(DateUtils.getNowDate());
-            apiManageItemMapper.insertApiManageItem(node);
-
-            if (node.getChildren() != null && !node.getChildren().isEmpty()) {
-                importTreeNodes(node.getChildren(), node.getItemId(), username);
+    /**
+     * 分批插入节点并回填生成的主键
+     */
+    private void batchInsertItems(List<ApiManageItem> items, String username, Date now) {
+        for (int i = 0; i < items.size(); i += IMPORT_BATCH_SIZE) {
+            List<ApiManageItem> batch = items.subList(i, Math.min(i + IMPORT_BATCH_SIZE, items.size()));
+            List<Map<String, Object>> keys = apiManageItemMapper.batchInsertApiManageItem(batch, username, now);
+            for (Map<String, Object> key : keys) {
+                int index = ((Number) key.get("row_index")).intValue();
+                batch.get(index).setItemId(((Number) key.get("item_id")).longValue());
             }
         }
     }
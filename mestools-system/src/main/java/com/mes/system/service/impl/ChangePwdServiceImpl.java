@@ -1,6 +1,8 @@
 package com.mes.system.service.impl;
 
 import com.mes.common.exception.ServiceException;
+import com.mes.system.domain.dto.BatchChangePwdDTO;
+import com.mes.system.domain.vo.ChangePwdResultVo;
 import com.mes.system.service.IChangePwdService;
 import com.mes.system.service.ISysDictDataService;
 import org.slf4j.Logger;
@@ -10,9 +12,18 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * @Author: weiyiming
@@ -23,6 +34,14 @@ import javax.sql.DataSource;
 public class ChangePwdServiceImpl implements IChangePwdService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChangePwdServiceImpl.class);
+
+    //懒得配置字典了直接PCA..dbo.ComplexHash(?,?)写固定调用
+    private static final String UPDATE_PWD_SQL = "UPDATE %s SET Pwd = PCA.dbo.ComplexHash(Account, ?), Udt = GETDATE() WHERE Account = ?";
+
+    /**
+     * 批量校验账号时单条IN查询的账号数量上限（SQL Server 单条语句最多 2100 个参数）
+     */
+    private static final int ACCOUNT_QUERY_BATCH_SIZE = 2000;
     @Autowired
     private JdbcTemplate jdbcTemplate;
     // 注入其他数据源（使用required = false 即使不存在也不会报错）
@@ -97,13 +116,7 @@ public class ChangePwdServiceImpl implements IChangePwdService {
         // 根据dbDataSource获取对应的数据源
         DataSource dataSource = getDataSourceByDbName(dbDataSource != null ? dbDataSource : "LOCALHOST");
         JdbcTemplate template = new JdbcTemplate(dataSource);
-        // 从fis_web_pwd_info字典获取label为FISWEB_DB_TABLE的value作为tableName
-        // 获取表名
-        String tableName = dictDataService.selectDictByTypeAndLabel("fis_web_pwd_info", "FISWEB_DB_TABLE");
-        if (tableName != null) tableName = tableName.trim();
-        if (tableName == null || tableName.isEmpty()) {
-            throw new ServiceException("未找到FisWeb密码表配置信息");
-        }
+        String tableName = getPwdTableName();
         try {
             String checkSql = "SELECT COUNT(*) FROM " + tableName + " WHERE Account = ?";
             Integer count = template.queryForObject(checkSql, Integer.class, fisNumber);
@@ -113,8 +126,7 @@ public class ChangePwdServiceImpl implements IChangePwdService {
             if (count > 1) {
                 throw new ServiceException("FisWeb账号 [" + fisNumber + "] 存在多条记录,无法修改密码");
             }
-            //懒得配置字典了直接PCA..dbo.ComplexHash(?,?)写固定调用
-            String updateSql = "UPDATE " + tableName + " SET Pwd = PCA.dbo.ComplexHash(Account, ?), Udt = GETDATE() WHERE Account = ?";
+            String updateSql = String.format(UPDATE_PWD_SQL, tableName);
             int result = template.update(updateSql, password, fisNumber);
             return result > 0;
         } catch (DataAccessException e) {
@@ -132,4 +144,107 @@ public class ChangePwdServiceImpl implements IChangePwdService {
             throw new ServiceException("密码修改失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 批量修改密码
+     * 1. 使用一次分组查询校验所有账号是否存在且唯一
+     * 2. 校验通过的账号在同一事务中通过 batchUpdate 批量更新，任一失败则全部回滚
+     *
+     * @param accounts
+     * @param dbDataSource
+     * @return 每个账号的处理结果，顺序与请求一致
+     */
+    @Override
+    public List<ChangePwdResultVo> batchChangePwd(List<BatchChangePwdDTO.Account> accounts, String dbDataSource) {
+        DataSource dataSource = getDataSourceByDbName(dbDataSource != null ? dbDataSource : "LOCALHOST");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        String tableName = getPwdTableName();
+        Map<String, ChangePwdResultVo> resultMap = new LinkedHashMap<>();
+        Map<String, String> pwdMap = new LinkedHashMap<>();
+        for (BatchChangePwdDTO.Account account : accounts) {
+            String fisNumber = account.getFisNumber().trim();
+            if (resultMap.containsKey(fisNumber)) {
+                resultMap.put(fisNumber, new ChangePwdResultVo(fisNumber, false, "账号在请求中重复"));
+                pwdMap.remove(fisNumber);
+                continue;
+            }
+            resultMap.put(fisNumber, new ChangePwdResultVo(fisNumber, false, null));
+            pwdMap.put(fisNumber, account.getPassword());
+        }
+        try {
+            // 一次分组查询校验账号存在性
+            Map<String, Integer> countMap = countAccounts(template, tableName, new ArrayList<>(pwdMap.keySet()));
+            List<Object[]> batchArgs = new ArrayList<>();
+            List<String> updateAccounts = new ArrayList<>();
+            for (Map.Entry<String, String> entry : pwdMap.entrySet()) {
+                String fisNumber = entry.getKey();
+                int count = countMap.getOrDefault(fisNumber, 0);
+                if (count == 0) {
+                    resultMap.get(fisNumber).setMessage("FisWeb账号不存在,无法修改密码");
+                } else if (count > 1) {
+                    resultMap.get(fisNumber).setMessage("FisWeb账号存在多条记录,无法修改密码");
+                } else {
+                    batchArgs.add(new Object[]{entry.getValue(), fisNumber});
+                    updateAccounts.add(fisNumber);
+                }
+            }
+            if (!batchArgs.isEmpty()) {
+                String updateSql = String.format(UPDATE_PWD_SQL, tableName);
+                TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+                int[] rows = transactionTemplate.execute(status -> template.batchUpdate(updateSql, batchArgs));
+                for (int i = 0; i < updateAccounts.size(); i++) {
+                    // 部分驱动批处理只返回 SUCCESS_NO_INFO(-2)
+                    boolean success = rows != null && (rows[i] > 0 || rows[i] == Statement.SUCCESS_NO_INFO);
+                    resultMap.get(updateAccounts.get(i)).setSuccess(success);
+                    resultMap.get(updateAccounts.get(i)).setMessage(success ? "密码修改成功" : "密码修改失败");
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.error("批量修改密码数据库操作异常: {}", e.getMessage());
+            String message = e.getMessage() != null && e.getMessage().contains("Invalid object name")
+                    ? "数据库表 [" + tableName + "] 不存在" : "数据库操作失败,已全部回滚: " + e.getMostSpecificCause().getMessage();
+            resultMap.values().stream().filter(r -> r.getMessage() == null || r.isSuccess()).forEach(r -> {
+                r.setSuccess(false);
+                r.setMessage(message);
+            });
+        }
+        logger.info("批量修改密码完成,数据库: {},账号数: {},成功: {}", dbDataSource, resultMap.size(),
+                resultMap.values().stream().filter(ChangePwdResultVo::isSuccess).count());
+        return new ArrayList<>(resultMap.values());
+    }
+
+    /**
+     * 分组统计账号记录数
+     *
+     * @param template
+     * @param tableName
+     * @param fisNumbers
+     * @return 账号 -> 记录数（账号不区分大小写，与数据库默认排序规则的比较方式一致）
+     */
+    private Map<String, Integer> countAccounts(JdbcTemplate template, String tableName, List<String> fisNumbers) {
+        Map<String, Integer> countMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < fisNumbers.size(); i += ACCOUNT_QUERY_BATCH_SIZE) {
+            List<String> batch = fisNumbers.subList(i, Math.min(i + ACCOUNT_QUERY_BATCH_SIZE, fisNumbers.size()));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            String checkSql = "SELECT Account, COUNT(*) AS cnt FROM " + tableName + " WHERE Account IN (" + placeholders + ") GROUP BY Account";
+            template.query(checkSql, rs -> {
+                countMap.merge(rs.getString("Account").trim(), rs.getInt("cnt"), Integer::sum);
+            }, batch.toArray());
+        }
+        return countMap;
+    }
+
+    /**
+     * 从fis_web_pwd_info字典获取label为FISWEB_DB_TABLE的value作为tableName
+     *
+     * @return 表名
+     */
+    private String getPwdTableName() {
+        String tableName = dictDataService.selectDictByTypeAndLabel("fis_web_pwd_info", "FISWEB_DB_TABLE");
+        if (tableName != null) tableName = tableName.trim();
+        if (tableName == null || tableName.isEmpty()) {
+            throw new ServiceException("未找到FisWeb密码表配置信息");
+        }
+        return tableName;
+    }
 }
\ No newline at end of file
@@ -1,20 +1,45 @@
 package com.mes.system.service.impl;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.filter.PropertyFilter;
 import com.mes.common.exception.ServiceException;
+import com.mes.common.utils.SecurityUtils;
+import com.mes.system.domain.ExecuteSqlHistory;
+import com.mes.system.domain.vo.FanOutQueryVo;
+import com.mes.system.domain.vo.SqlPlanVo;
+import com.mes.system.mapper.ExecuteSqlHistoryMapper;
 import com.mes.system.service.IExecuteSqlService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 
 import javax.sql.DataSource;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * @Author: weiyiming
@@ -25,6 +50,43 @@ import java.util.Map;
 public class ExecuteSqlServiceImpl implements IExecuteSqlService {
     private static final Logger logger = LoggerFactory.getLogger(ExecuteSqlServiceImpl.class);
 
+    /**
+     * 并发查询时合并结果中的来源数据库列名
+     */
+    public static final String SOURCE_DB_COLUMN = "SOURCE_DB";
+
+    /**
+     * 并发查询时每个数据源的等待超时时间（秒），与单条语句的查询超时保持一致
+     */
+    private static final int FAN_OUT_TIMEOUT_SECONDS = 5;
+
+    /**
+     * 统计信息采集的查询超时时间（秒），放宽以便分析在普通查询中超时的语句
+     */
+    private static final int ANALYZE_TIMEOUT_SECONDS = 30;
+
+    /**
+     * 分析结果中保留的运算符数量上限
+     */
+    private static final int MAX_PLAN_OPERATORS = 20;
+
+    /**
+     * SQL Server 执行计划XML命名空间
+     */
+    private static final String SHOWPLAN_NAMESPACE = "http://schemas.microsoft.com/sqlserver/2004/07/showplan";
+
+    /**
+     * STATISTICS IO 输出：Table 'xxx'. Scan count 1, logical reads 12, physical reads 0, ...
+     */
+    private static final Pattern STATISTICS_IO_PATTERN = Pattern.compile(
+            "Table '([^']+)'\\. Scan count (\\d+), logical reads (\\d+), physical reads (\\d+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * STATISTICS TIME 输出：SQL Server Execution Times: CPU time = 16 ms,  elapsed time = 20 ms.
+     */
+    private static final Pattern STATISTICS_TIME_PATTERN = Pattern.compile(
+            "Execution Times:\\s*CPU time = (\\d+) ms,\\s*elapsed time = (\\d+) ms", Pattern.CASE_INSENSITIVE);
+
     //TODO 为了测试暂时将本地作为主数据源
     // 注入主数据源 (LOCALHOST)
     @Autowired
@@ -54,6 +116,13 @@ public class ExecuteSqlServiceImpl implements IExecuteSqlService {
     @Value("${spring.datasource.druid.extra.itefis_db_online.enabled}")
     private boolean itefisDbOnlineEnabled;
 
+    @Autowired
+    @Qualifier("threadPoolTaskExecutor")
+    private ThreadPoolTaskExecutor threadPoolTaskExecutor;
+
+    @Autowired
+    private ExecuteSqlHistoryMapper executeSqlHistoryMapper;
+
     /**
      * 执行查询
      *
@@ -94,6 +163,344 @@ public class ExecuteSqlServiceImpl implements IExecuteSqlService {
         }
     }
 
+    /**
+     * 多数据源并发查询
+     * 每个数据源独立计时，失败或超时的数据源记录到failures中，不影响其余数据源的结果返回
+     *
+     * @param dbNames
+     * @param sql
+     * @return
+     */
+    @Override
+    public FanOutQueryVo executeFanOutQuery(List<String> dbNames, String sql) {
+        long startTime = System.currentTimeMillis();
+        FanOutQueryVo result = new FanOutQueryVo();
+        // 去重并保持前端传入的顺序
+        Map<String, CompletableFuture<List<Map<String, Object>>>> futures = new LinkedHashMap<>();
+        Map<String, Long> costTimes = new ConcurrentHashMap<>();
+        for (String dbName : new LinkedHashSet<>(dbNames)) {
+            futures.put(dbName, CompletableFuture.supplyAsync(() -> {
+                long dbStartTime = System.currentTimeMillis();
+                List<Map<String, Object>> rows = executeQuery(dbName, sql);
+                costTimes.put(dbName, System.currentTimeMillis() - dbStartTime);
+                return rows;
+            }, threadPoolTaskExecutor));
+        }
+        // 所有数据源同时开始执行，按统一截止时间等待，总耗时取决于最慢的数据源
+        long deadline = startTime + TimeUnit.SECONDS.toMillis(FAN_OUT_TIMEOUT_SECONDS);
+        for (Map.Entry<String, CompletableFuture<List<Map<String, Object>>>> entry : futures.entrySet()) {
+            String dbName = entry.getKey();
+            CompletableFuture<List<Map<String, Object>>> future = entry.getValue();
+            try {
+                long remaining = Math.max(deadline - System.currentTimeMillis(), 0);
+                List<Map<String, Object>> rows = future.get(remaining, TimeUnit.MILLISECONDS);
+                for (Map<String, Object> row : rows) {
+                    Map<String, Object> merged = new LinkedHashMap<>();
+                    merged.put(SOURCE_DB_COLUMN, dbName);
+                    merged.putAll(row);
+                    result.getRows().add(merged);
+                }
+                result.getRowCounts().put(dbName, rows.size());
+                result.getCostTimes().put(dbName, costTimes.get(dbName));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                logger.warn("并发查询数据源 {} 超时", dbName);
+                result.getFailures().put(dbName, "查询超时(" + FAN_OUT_TIMEOUT_SECONDS + "s)");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.warn("并发查询数据源 {} 失败: {}", dbName, cause.getMessage());
+                result.getFailures().put(dbName, cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.getFailures().put(dbName, "查询被中断");
+            }
+        }
+        result.setTotalTime(System.currentTimeMillis() - startTime);
+        logger.info("并发查询完成,数据源: {},耗时: {} ms,返回 {} 行数据,失败 {} 个", futures.keySet(),
+                result.getTotalTime(), result.getRows().size(), result.getFailures().size());
+        return result;
+    }
+
+    /**
+     * 执行计划与统计信息分析
+     * 1. SET SHOWPLAN_XML 获取估算执行计划（语句不会被执行）
+     * 2. SET STATISTICS IO/TIME 实际执行一次语句，采集逻辑读与CPU时间；执行失败或超时时仅返回估算执行计划
+     *
+     * @param dbName
+     * @param sql
+     * @return
+     */
+    @Override
+    public SqlPlanVo analyzeQuery(String dbName, String sql) {
+        long startTime = System.currentTimeMillis();
+        logger.info("开始分析SQL: {}, 数据库: {}", sql, dbName);
+        SqlPlanVo plan = new SqlPlanVo();
+        plan.setDbName(dbName);
+        try (Connection connection = getDataSourceByDbName(dbName).getConnection()) {
+            plan.setPlanXml(captureShowPlan(connection, sql));
+            parseShowPlan(plan.getPlanXml(), plan);
+            try {
+                captureStatistics(connection, sql, plan);
+            } catch (SQLException e) {
+                logger.warn("采集SQL统计信息失败: {}", e.getMessage());
+                plan.setStatisticsError(e.getMessage());
+            }
+        } catch (SQLException e) {
+            logger.error("获取SQL执行计划出错: {}", sql, e);
+            throw new ServiceException("获取SQL执行计划出错: " + e.getMessage());
+        }
+        saveAnalyzeHistory(sql, plan);
+        logger.info("SQL分析完成,耗时: {} ms,估算成本: {},逻辑读: {}", (System.currentTimeMillis() - startTime),
+                plan.getEstimatedCost(), plan.getLogicalReads());
+        return plan;
+    }
+
+    @Override
+    public List<ExecuteSqlHistory> selectExecuteSqlHistoryList(ExecuteSqlHistory history) {
+        return executeSqlHistoryMapper.selectExecuteSqlHistoryList(history);
+    }
+
+    @Override
+    public ExecuteSqlHistory selectExecuteSqlHistoryById(Long historyId) {
+        return executeSqlHistoryMapper.selectExecuteSqlHistoryById(historyId);
+    }
+
+    /**
+     * 获取估算执行计划XML
+     * 会话级开关，执行完成后必须关闭，防止连接归还连接池后影响其他查询
+     */
+    private String captureShowPlan(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SHOWPLAN_XML ON");
+            try {
+                StringBuilder planXml = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery(sql)) {
+                    while (resultSet.next()) {
+                        planXml.append(resultSet.getString(1));
+                    }
+                }
+                return planXml.toString();
+            } finally {
+                statement.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+    }
+
+    /**
+     * 执行语句并采集 STATISTICS IO/TIME 输出
+     * 统计信息以消息(SQLWarning)的形式在消费结果集的过程中返回，因此需要读完所有结果集；
+     * 不限制返回行数，否则服务端提前结束执行，统计的读取次数与耗时偏小，执行时长由查询超时兜底
+     */
+    private void captureStatistics(Connection connection, String sql, SqlPlanVo plan) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET STATISTICS IO ON");
+            statement.execute("SET STATISTICS TIME ON");
+            try {
+                statement.clearWarnings();
+                statement.setQueryTimeout(ANALYZE_TIMEOUT_SECONDS);
+                boolean hasResultSet = statement.execute(sql);
+                while (hasResultSet || statement.getUpdateCount() != -1) {
+                    if (hasResultSet) {
+                        try (ResultSet resultSet = statement.getResultSet()) {
+                            while (resultSet.next()) {
+                                // 仅消费结果，不保留数据
+                            }
+                        }
+                    }
+                    hasResultSet = statement.getMoreResults();
+                }
+                for (SQLWarning warning = statement.getWarnings(); warning != null; warning = warning.getNextWarning()) {
+                    if (warning.getMessage() != null) {
+                        plan.getMessages().add(warning.getMessage().trim());
+                    }
+                }
+            } finally {
+                statement.execute("SET STATISTICS IO OFF");
+                statement.execute("SET STATISTICS TIME OFF");
+            }
+        }
+        parseStatistics(plan);
+    }
+
+    /**
+     * 解析 STATISTICS IO/TIME 输出，汇总逻辑读与执行CPU时间（不含解析编译时间）
+     */
+    private void parseStatistics(SqlPlanVo plan) {
+        long logicalReads = 0;
+        long cpuTime = 0;
+        long elapsedTime = 0;
+        boolean hasTime = false;
+        for (String message : plan.getMessages()) {
+            Matcher ioMatcher = STATISTICS_IO_PATTERN.matcher(message);
+            while (ioMatcher.find()) {
+                SqlPlanVo.TableIo tableIo = new SqlPlanVo.TableIo();
+                tableIo.setTableName(ioMatcher.group(1));
+                tableIo.setScanCount(Long.parseLong(ioMatcher.group(2)));
+                tableIo.setLogicalReads(Long.parseLong(ioMatcher.group(3)));
+                tableIo.setPhysicalReads(Long.parseLong(ioMatcher.group(4)));
+                plan.getTableIos().add(tableIo);
+                logicalReads += tableIo.getLogicalReads();
+            }
+            Matcher timeMatcher = STATISTICS_TIME_PATTERN.matcher(message);
+            while (timeMatcher.find()) {
+                hasTime = true;
+                cpuTime += Long.parseLong(timeMatcher.group(1));
+                elapsedTime += Long.parseLong(timeMatcher.group(2));
+            }
+        }
+        plan.setLogicalReads(logicalReads);
+        if (hasTime) {
+            plan.setCpuTime(cpuTime);
+            plan.setElapsedTime(elapsedTime);
+        }
+    }
+
+    /**
+     * 解析估算执行计划XML，提取语句成本、主要运算符及缺失索引提示
+     */
+    private void parseShowPlan(String planXml, SqlPlanVo plan) {
+        if (planXml == null || planXml.isEmpty()) {
+            return;
+        }
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(planXml)));
+
+            double estimatedCost = 0;
+            NodeList statements = document.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "StmtSimple");
+            for (int i = 0; i < statements.getLength(); i++) {
+                estimatedCost += parseDouble(((Element) statements.item(i)).getAttribute("StatementSubTreeCost"));
+            }
+            plan.setEstimatedCost(estimatedCost);
+
+            List<SqlPlanVo.PlanOperator> operators = new ArrayList<>();
+            NodeList relOps = document.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "RelOp");
+            for (int i = 0; i < relOps.getLength(); i++) {
+                Element relOp = (Element) relOps.item(i);
+                SqlPlanVo.PlanOperator operator = new SqlPlanVo.PlanOperator();
+                operator.setPhysicalOp(relOp.getAttribute("PhysicalOp"));
+                operator.setLogicalOp(relOp.getAttribute("LogicalOp"));
+                operator.setEstimateRows(parseDouble(relOp.getAttribute("EstimateRows")));
+                operator.setEstimatedCost(parseDouble(relOp.getAttribute("EstimatedTotalSubtreeCost")));
+                operator.setObjectName(findOperatorObject(relOp));
+                operators.add(operator);
+            }
+            plan.setOperators(operators.stream()
+                    .sorted(Comparator.comparing(SqlPlanVo.PlanOperator::getEstimatedCost).reversed())
+                    .limit(MAX_PLAN_OPERATORS)
+                    .collect(Collectors.toList()));
+
+            NodeList indexGroups = document.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "MissingIndexGroup");
+            for (int i = 0; i < indexGroups.getLength(); i++) {
+                Element indexGroup = (Element) indexGroups.item(i);
+                NodeList indexes = indexGroup.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "MissingIndex");
+                for (int j = 0; j < indexes.getLength(); j++) {
+                    plan.getMissingIndexes().add(parseMissingIndex((Element) indexes.item(j),
+                            parseDouble(indexGroup.getAttribute("Impact"))));
+                }
+            }
+        } catch (Exception e) {
+            // 解析失败不影响返回原始执行计划XML
+            logger.warn("解析SQL执行计划失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查找运算符直接访问的对象，如 IndexScan/IndexSeek 下的 Object 节点
+     */
+    private String findOperatorObject(Element relOp) {
+        for (Node child = relOp.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() != Node.ELEMENT_NODE || "RelOp".equals(child.getLocalName())) {
+                continue;
+            }
+            for (Node grandChild = child.getFirstChild(); grandChild != null; grandChild = grandChild.getNextSibling()) {
+                if (grandChild.getNodeType() == Node.ELEMENT_NODE && "Object".equals(grandChild.getLocalName())) {
+                    Element object = (Element) grandChild;
+                    String name = object.getAttribute("Table");
+                    if (!object.getAttribute("Index").isEmpty()) {
+                        name = name + "." + object.getAttribute("Index");
+                    }
+                    return name;
+                }
+            }
+        }
+        return null;
+    }
+
+    private SqlPlanVo.MissingIndex parseMissingIndex(Element index, double impact) {
+        SqlPlanVo.MissingIndex missingIndex = new SqlPlanVo.MissingIndex();
+        missingIndex.setImpact(impact);
+        missingIndex.setTableName(index.getAttribute("Database") + "." + index.getAttribute("Schema") + "." + index.getAttribute("Table"));
+        NodeList columnGroups = index.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "ColumnGroup");
+        for (int i = 0; i < columnGroups.getLength(); i++) {
+            Element columnGroup = (Element) columnGroups.item(i);
+            List<String> target;
+            switch (columnGroup.getAttribute("Usage")) {
+                case "EQUALITY":
+                    target = missingIndex.getEqualityColumns();
+                    break;
+                case "INEQUALITY":
+                    target = missingIndex.getInequalityColumns();
+                    break;
+                default:
+                    target = missingIndex.getIncludeColumns();
+                    break;
+            }
+            NodeList columns = columnGroup.getElementsByTagNameNS(SHOWPLAN_NAMESPACE, "Column");
+            for (int j = 0; j < columns.getLength(); j++) {
+                target.add(((Element) columns.item(j)).getAttribute("Name"));
+            }
+        }
+        List<String> keyColumns = new ArrayList<>(missingIndex.getEqualityColumns());
+        keyColumns.addAll(missingIndex.getInequalityColumns());
+        StringBuilder createStatement = new StringBuilder("CREATE NONCLUSTERED INDEX [IX_")
+                .append(index.getAttribute("Table").replace("[", "").replace("]", ""))
+                .append("_").append(String.join("_", keyColumns).replace("[", "").replace("]", ""))
+                .append("] ON ").append(missingIndex.getTableName())
+                .append(" (").append(String.join(", ", keyColumns)).append(")");
+        if (!missingIndex.getIncludeColumns().isEmpty()) {
+            createStatement.append(" INCLUDE (").append(String.join(", ", missingIndex.getIncludeColumns())).append(")");
+        }
+        missingIndex.setCreateStatement(createStatement.toString());
+        return missingIndex;
+    }
+
+    private double parseDouble(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0D;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0D;
+        }
+    }
+
+    /**
+     * 保存分析结果到SQL分析历史，保存失败不影响分析结果返回
+     */
+    private void saveAnalyzeHistory(String sql, SqlPlanVo plan) {
+        try {
+            ExecuteSqlHistory history = new ExecuteSqlHistory();
+            history.setDbName(plan.getDbName());
+            history.setSqlContent(sql);
+            history.setEstimatedCost(plan.getEstimatedCost());
+            history.setLogicalReads(plan.getLogicalReads());
+            history.setCpuTime(plan.getCpuTime());
+            history.setElapsedTime(plan.getElapsedTime());
+            history.setPlanXml(plan.getPlanXml());
+            // 执行计划XML单独存储，分析JSON中不重复保存
+            history.setAnalysisJson(JSON.toJSONString(plan, (PropertyFilter) (object, name, value) -> !"planXml".equals(name)));
+            history.setCreateBy(SecurityUtils.getUsername());
+            executeSqlHistoryMapper.insertExecuteSqlHistory(history);
+            plan.setHistoryId(history.getHistoryId());
+        } catch (Exception e) {
+            logger.error("保存SQL分析历史失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 执行更新、插入、删除的通用方法
      *
@@ -3,15 +3,39 @@ package com.mes.system.service.impl;
 import com.mes.common.exception.ServiceException;
 import com.mes.common.utils.SecurityUtils;
 import com.mes.common.utils.StringUtils;
+import com.mes.common.utils.file.AttachmentUtils;
+import com.mes.common.utils.html.EscapeUtil;
 import com.mes.system.domain.QueryInfo;
+import com.mes.system.domain.QueryInfoTag;
+import com.mes.system.domain.vo.TagFacetVo;
 import com.mes.system.mapper.QueryInfoMapper;
+import com.mes.system.mapper.QueryInfoTagMapper;
 import com.mes.system.service.IQueryInfoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * @Author: weiyiming
@@ -20,10 +44,88 @@ import java.util.List;
  */
 @Service
 public class QueryInfoServiceImpl implements IQueryInfoService {
+    private static final Logger logger = LoggerFactory.getLogger(QueryInfoServiceImpl.class);
+
+    /**
+     * 标签批量插入的分批大小（SQL Server 单条语句最多 2100 个参数）
+     */
+    private static final int TAG_BATCH_SIZE = 500;
+
+    /**
+     * 阅读次数批量写回的分批大小（每条记录2个参数）
+     */
+    private static final int SEARCH_COUNT_BATCH_SIZE = 500;
+
+    /**
+     * 阅读次数写回间隔（秒）
+     */
+    private static final int SEARCH_COUNT_FLUSH_SECONDS = 10;
+
+    /**
+     * 历史数据迁移（纯文本回填等）每批处理的条数
+     */
+    private static final int MIGRATE_BATCH_SIZE = 200;
+
+    /**
+     * 导入时JDBC批处理的分批大小
+     */
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    /**
+     * 导入时按ID批量删除标签的分批大小（SQL Server 单条语句最多 2100 个参数）
+     */
+    private static final int BATCH_DELETE_SIZE = 2000;
+
+    private static final String INSERT_QUERY_INFO_SQL = "INSERT INTO query_info (info_title, info_tags, info_type, info_content, info_text, "
+            + "status, search_count, create_by, create_time, remark) VALUES (?, ?, ?, ?, ?, ?, ?, ?, GETDATE(), ?)";
+
+    private static final int[] INSERT_QUERY_INFO_TYPES = {Types.NVARCHAR, Types.NVARCHAR, Types.NVARCHAR, Types.NVARCHAR,
+            Types.NVARCHAR, Types.CHAR, Types.INTEGER, Types.NVARCHAR, Types.NVARCHAR};
+
+    /**
+     * 与 updateQueryInfo 的动态更新条件一致：字符串列为空串或 NULL 时保留原值，其余列为 NULL 时保留原值；
+     * search_count 只由阅读次数累加更新，导入不覆盖
+     */
+    private static final String UPDATE_QUERY_INFO_SQL = "UPDATE query_info SET info_title = COALESCE(NULLIF(?, ''), info_title), "
+            + "info_tags = COALESCE(NULLIF(?, ''), info_tags), info_type = COALESCE(NULLIF(?, ''), info_type), "
+            + "info_content = COALESCE(?, info_content), info_text = COALESCE(?, info_text), status = COALESCE(NULLIF(?, ''), status), "
+            + "update_by = COALESCE(NULLIF(?, ''), update_by), update_time = GETDATE(), "
+            + "remark = COALESCE(?, remark) WHERE info_id = ?";
+
+    private static final int[] UPDATE_QUERY_INFO_TYPES = {Types.NVARCHAR, Types.NVARCHAR, Types.NVARCHAR, Types.NVARCHAR,
+            Types.NVARCHAR, Types.CHAR, Types.NVARCHAR, Types.NVARCHAR, Types.INTEGER};
+
+    private static final String INSERT_QUERY_INFO_TAG_SQL = "INSERT INTO query_info_tag (info_id, tag) VALUES (?, ?)";
+
+    private static final int[] INSERT_QUERY_INFO_TAG_TYPES = {Types.INTEGER, Types.NVARCHAR};
+
+    /**
+     * 尚未写回数据库的阅读次数 (infoId -> 次数)
+     */
+    private final Map<Integer, LongAdder> pendingSearchCounts = new ConcurrentHashMap<>();
 
     @Autowired
     private QueryInfoMapper queryInfoMapper;
 
+    @Autowired
+    private QueryInfoTagMapper queryInfoTagMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("scheduledExecutorService")
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /**
+     * 项目启动时，启动阅读次数定期写回任务
+     */
+    @PostConstruct
+    public void init() {
+        scheduledExecutorService.scheduleWithFixedDelay(this::flushSearchCounts,
+                SEARCH_COUNT_FLUSH_SECONDS, SEARCH_COUNT_FLUSH_SECONDS, TimeUnit.SECONDS);
+    }
+
     /**
      * 根据infoId获取详情
      *
@@ -34,18 +136,72 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
     public QueryInfo selectQueryInfoByInfoId(Integer infoId) {
         QueryInfo info = queryInfoMapper.selectQueryInfoByInfoId(infoId);
         if (info != null) {
-            // 查看详情时增加搜索/阅读次数
-            QueryInfo updateInfo = new QueryInfo();
-            updateInfo.setInfoId(info.getInfoId());
-            int newCount = (info.getSearchCount() == null ? 0 : info.getSearchCount()) + 1;
-            updateInfo.setSearchCount(newCount);
-            queryInfoMapper.updateQueryInfo(updateInfo);
-            // 更新返回对象的阅读数，使前端显示最新值
-            info.setSearchCount(newCount);
+            increaseSearchCount(info.getInfoId());
+            // 返回值包含尚未写回的次数，使前端显示最新值
+            int dbCount = info.getSearchCount() == null ? 0 : info.getSearchCount();
+            info.setSearchCount(dbCount + (int) pendingSearchCounts.get(info.getInfoId()).sum());
         }
         return info;
     }
 
+    /**
+     * 根据infoId获取不含资料内容的信息（用于详情的版本校验）
+     *
+     * @param infoId
+     * @return
+     */
+    @Override
+    public QueryInfo selectQueryInfoSummaryByInfoId(Integer infoId) {
+        return queryInfoMapper.selectQueryInfoSummaryByInfoId(infoId);
+    }
+
+    /**
+     * 增加搜索/阅读次数：仅累加到内存计数器，由后台任务定期批量写回数据库
+     *
+     * @param infoId
+     */
+    @Override
+    public void increaseSearchCount(Integer infoId) {
+        pendingSearchCounts.computeIfAbsent(infoId, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 将内存中累计的阅读次数批量写回数据库
+     * 按已读取的数量扣减计数器，期间新增的次数保留到下一轮，不会丢失；写回失败时计数器保持不变
+     */
+    public synchronized void flushSearchCounts() {
+        List<QueryInfo> increments = new ArrayList<>();
+        for (Map.Entry<Integer, LongAdder> entry : pendingSearchCounts.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                QueryInfo increment = new QueryInfo();
+                increment.setInfoId(entry.getKey());
+                increment.setSearchCount((int) count);
+                increments.add(increment);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < increments.size(); i += SEARCH_COUNT_BATCH_SIZE) {
+                List<QueryInfo> batch = increments.subList(i, Math.min(i + SEARCH_COUNT_BATCH_SIZE, increments.size()));
+                queryInfoMapper.batchIncreaseSearchCount(batch);
+                for (QueryInfo increment : batch) {
+                    pendingSearchCounts.get(increment.getInfoId()).add(-increment.getSearchCount());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("资料阅读次数写回失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 应用关闭前写回剩余的阅读次数
+        flushSearchCounts();
+    }
+
     /**
      * 列表查询
      *
@@ -58,6 +214,42 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
         return queryInfoMapper.selectQueryInfoList(queryInfo);
     }
 
+    /**
+     * 列表投影查询，不返回资料内容
+     *
+     * @param queryInfo
+     * @return
+     */
+    @Override
+    public List<QueryInfo> selectQueryInfoSummaryList(QueryInfo queryInfo) {
+        return queryInfoMapper.selectQueryInfoSummaryList(queryInfo);
+    }
+
+    /**
+     * 全文检索，关键字为空时退化为普通列表查询
+     *
+     * @param queryInfo
+     * @return
+     */
+    @Override
+    public List<QueryInfo> selectQueryInfoSearch(QueryInfo queryInfo) {
+        if (StringUtils.isEmpty(queryInfo.getSearchValue())) {
+            return queryInfoMapper.selectQueryInfoSummaryList(queryInfo);
+        }
+        return queryInfoMapper.selectQueryInfoSearch(queryInfo);
+    }
+
+    /**
+     * 标签分面统计
+     *
+     * @param queryInfo
+     * @return
+     */
+    @Override
+    public List<TagFacetVo> selectTagFacetList(QueryInfo queryInfo) {
+        return queryInfoTagMapper.selectTagFacetList(queryInfo);
+    }
+
     /**
      * 新增并且部分字段设定默认值
      *
@@ -68,15 +260,17 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
     @Transactional
     public int insertQueryInfo(QueryInfo queryInfo) {
         validateQueryInfo(queryInfo);
-        if (queryInfo.getSearchCount() == null) {
-            queryInfo.setSearchCount(0);
-        }
+        // 阅读次数只由阅读累加，忽略客户端传入的值
+        queryInfo.setSearchCount(0);
         if (StringUtils.isEmpty(queryInfo.getStatus())) {
             queryInfo.setStatus("0");
         }
         queryInfo.setCreateBy(SecurityUtils.getUsername());
         queryInfo.setCreateTime(new Date());
-        return queryInfoMapper.insertQueryInfo(queryInfo);
+        fillInfoText(queryInfo);
+        int rows = queryInfoMapper.insertQueryInfo(queryInfo);
+        saveInfoTags(queryInfo);
+        return rows;
     }
 
     /**
@@ -96,6 +290,18 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
         }
     }
 
+    /**
+     * 工具类-将富文本中的内联base64图片转存为内容寻址附件，并根据富文本内容生成全文检索用的纯文本，内容未修改时不处理
+     *
+     * @param info
+     */
+    private void fillInfoText(QueryInfo info) {
+        if (info.getInfoContent() != null) {
+            info.setInfoContent(AttachmentUtils.externalizeInlineImages(info.getInfoContent()));
+            info.setInfoText(EscapeUtil.toPlainText(info.getInfoContent()));
+        }
+    }
+
     /**
      * 更新
      *
@@ -106,9 +312,49 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
     @Transactional
     public int updateQueryInfo(QueryInfo queryInfo) {
         validateQueryInfo(queryInfo);
+        // 详情返回的阅读次数含未写回的增量，不能回写，阅读次数只由阅读累加
+        queryInfo.setSearchCount(null);
         queryInfo.setUpdateBy(SecurityUtils.getUsername());
         queryInfo.setUpdateTime(new Date());
-        return queryInfoMapper.updateQueryInfo(queryInfo);
+        fillInfoText(queryInfo);
+        int rows = queryInfoMapper.updateQueryInfo(queryInfo);
+        saveInfoTags(queryInfo);
+        return rows;
+    }
+
+    /**
+     * 工具类-按 info_tags 重建资料的标签索引（先删后插）
+     *
+     * @param info
+     */
+    private void saveInfoTags(QueryInfo info) {
+        if (info.getInfoId() == null || info.getInfoTags() == null) {
+            return;
+        }
+        queryInfoTagMapper.deleteQueryInfoTagByInfoId(info.getInfoId());
+        List<QueryInfoTag> tagList = splitInfoTags(info.getInfoTags()).stream()
+                .map(tag -> new QueryInfoTag(info.getInfoId(), tag))
+                .collect(Collectors.toList());
+        for (int i = 0; i < tagList.size(); i += TAG_BATCH_SIZE) {
+            queryInfoTagMapper.batchQueryInfoTag(tagList.subList(i, Math.min(i + TAG_BATCH_SIZE, tagList.size())));
+        }
+    }
+
+    /**
+     * 工具类-拆分逗号分隔的标签，去除空白与重复
+     *
+     * @param infoTags
+     * @return
+     */
+    private List<String> splitInfoTags(String infoTags) {
+        if (StringUtils.isEmpty(infoTags)) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(infoTags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     /**
@@ -120,6 +366,7 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
     @Override
     @Transactional
     public int deleteQueryInfoByInfoId(Integer infoId) {
+        queryInfoTagMapper.deleteQueryInfoTagByInfoId(infoId);
         return queryInfoMapper.deleteQueryInfoByInfoId(infoId);
     }
 
@@ -132,6 +379,7 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
     @Override
     @Transactional
     public int deleteQueryInfoByInfoIds(Integer[] infoIds) {
+        queryInfoTagMapper.deleteQueryInfoTagByInfoIds(infoIds);
         return queryInfoMapper.deleteQueryInfoByInfoIds(infoIds);
     }
 
@@ -154,27 +402,40 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
         int duplicateNum = 0;
         int updateNum = 0;
         StringBuilder failureMsg = new StringBuilder();
+        // 1. 一次性加载全部标题用于判重，替代逐行按标题查询
+        Map<String, Integer> titleIdMap = selectTitleIdMap();
+        // 2. 将导入数据划分为新增集与更新集（同一文件中重复的标题按后出现的数据为准）
+        Map<String, QueryInfo> insertMap = new LinkedHashMap<>();
+        Map<Integer, QueryInfo> updateMap = new LinkedHashMap<>();
         for (QueryInfo info : infoList) {
             try {
                 validateQueryInfo(info);
-                QueryInfo existingInfo = queryInfoMapper.selectByInfoTitle(info.getInfoTitle());
-                if (existingInfo == null) {
+                Integer existingId = titleIdMap.get(info.getInfoTitle());
+                if (existingId == null && !insertMap.containsKey(info.getInfoTitle())) {
                     // 补全默认值，保持与insertQueryInfo逻辑一致
-                    if (info.getSearchCount() == null) {
-                        info.setSearchCount(0);
-                    }
+                    info.setSearchCount(0);
                     if (StringUtils.isEmpty(info.getStatus())) {
                         info.setStatus("0");
                     }
                     info.setCreateBy(operName);
-                    info.setCreateTime(new Date());
-                    queryInfoMapper.insertQueryInfo(info);
+                    fillInfoText(info);
+                    insertMap.put(info.getInfoTitle(), info);
                     successNum++;
                 } else if (updateSupport) {
-                    info.setInfoId(existingInfo.getInfoId());
                     info.setUpdateBy(operName);
-                    info.setUpdateTime(new Date());
-                    queryInfoMapper.updateQueryInfo(info);
+                    fillInfoText(info);
+                    if (existingId == null) {
+                        // 文件内重复且尚未入库的标题，直接替换待新增的数据
+                        QueryInfo pending = insertMap.get(info.getInfoTitle());
+                        info.setSearchCount(0);
+                        info.setStatus(StringUtils.isEmpty(info.getStatus()) ? pending.getStatus() : info.getStatus());
+                        info.setCreateBy(operName);
+                        insertMap.put(info.getInfoTitle(), info);
+                    } else {
+                        info.setSearchCount(null);
+                        info.setInfoId(existingId);
+                        updateMap.put(existingId, info);
+                    }
                     updateNum++;
                 } else {
                     duplicateNum++;
@@ -185,6 +446,22 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
                 failureMsg.append(msg);
             }
         }
+        // 3. 按集合批量写入
+        try {
+            batchInsertQueryInfo(new ArrayList<>(insertMap.values()));
+            batchUpdateQueryInfo(new ArrayList<>(updateMap.values()));
+            if (!insertMap.isEmpty()) {
+                // 新增数据的ID通过标题回查（JDBC批处理不返回自增主键）
+                Map<String, Integer> insertedIdMap = selectTitleIdMap();
+                insertMap.values().forEach(info -> info.setInfoId(insertedIdMap.get(info.getInfoTitle())));
+            }
+            List<QueryInfo> savedList = new ArrayList<>(insertMap.values());
+            savedList.addAll(updateMap.values());
+            batchSaveInfoTags(savedList);
+        } catch (DataAccessException e) {
+            logger.error("资料批量导入失败: {}", e.getMessage());
+            throw new ServiceException("资料批量导入失败：" + e.getMostSpecificCause().getMessage());
+        }
         StringBuilder resultMsg = new StringBuilder();
         resultMsg.append("导入结果：成功新增 ").append(successNum).append(" 条,成功更新 ").append(updateNum).append(" 条,跳过重复 ").append(duplicateNum).append(" 条,失败 ").append(failureNum).append(" 条");
         if (failureNum > 0) {
@@ -192,4 +469,129 @@ public class QueryInfoServiceImpl implements IQueryInfoService {
         }
         return resultMsg.toString();
     }
+
+    /**
+     * 分批回填尚未生成纯文本的历史资料（全文检索升级后手动执行一次）
+     *
+     * @return 回填条数
+     */
+    @Override
+    public synchronized int backfillInfoText() {
+        int total = 0;
+        int lastInfoId = 0;
+        List<QueryInfo> list;
+        while (!(list = queryInfoMapper.selectQueryInfoWithoutText(lastInfoId, MIGRATE_BATCH_SIZE)).isEmpty()) {
+            for (QueryInfo info : list) {
+                fillInfoText(info);
+                queryInfoMapper.updateQueryInfoText(info);
+                lastInfoId = info.getInfoId();
+            }
+            total += list.size();
+        }
+        logger.info("资料全文检索内容回填完成,共 {} 条", total);
+        return total;
+    }
+
+    /**
+     * 分批将历史资料中的内联base64图片转存为附件（升级后手动执行一次）
+     * 按ID游标推进，无法转存的内容（如SVG）只会在本次执行中被跳过一次
+     *
+     * @return 转存条数
+     */
+    @Override
+    public synchronized int externalizeInlineImages() {
+        int total = 0;
+        int lastInfoId = 0;
+        List<QueryInfo> list;
+        while (!(list = queryInfoMapper.selectQueryInfoWithInlineImages(lastInfoId, MIGRATE_BATCH_SIZE)).isEmpty()) {
+            for (QueryInfo info : list) {
+                lastInfoId = info.getInfoId();
+                String content = AttachmentUtils.externalizeInlineImages(info.getInfoContent());
+                if (!content.equals(info.getInfoContent())) {
+                    info.setInfoContent(content);
+                    queryInfoMapper.updateQueryInfoContent(info);
+                    total++;
+                }
+            }
+        }
+        logger.info("资料内联图片转存完成,共 {} 条", total);
+        return total;
+    }
+
+    /**
+     * 工具类-加载全部资料的 标题 -> ID 映射
+     *
+     * @return
+     */
+    private Map<String, Integer> selectTitleIdMap() {
+        Map<String, Integer> titleIdMap = new HashMap<>();
+        for (QueryInfo info : queryInfoMapper.selectQueryInfoTitleList()) {
+            titleIdMap.put(info.getInfoTitle(), info.getInfoId());
+        }
+        return titleIdMap;
+    }
+
+    /**
+     * 工具类-JDBC批量新增资料
+     *
+     * @param infoList
+     */
+    private void batchInsertQueryInfo(List<QueryInfo> infoList) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (QueryInfo info : infoList) {
+            batchArgs.add(new Object[]{info.getInfoTitle(), info.getInfoTags(), info.getInfoType(),
+                    emptyToNull(info.getInfoContent()), info.getInfoText(), info.getStatus(), info.getSearchCount(),
+                    info.getCreateBy(), emptyToNull(info.getRemark())});
+        }
+        executeBatch(INSERT_QUERY_INFO_SQL, batchArgs, INSERT_QUERY_INFO_TYPES);
+    }
+
+    /**
+     * 工具类-JDBC批量更新资料，空值字段保留原值，与updateQueryInfo的动态更新语义一致
+     *
+     * @param infoList
+     */
+    private void batchUpdateQueryInfo(List<QueryInfo> infoList) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (QueryInfo info : infoList) {
+            batchArgs.add(new Object[]{info.getInfoTitle(), info.getInfoTags(), info.getInfoType(),
+                    info.getInfoContent(), info.getInfoText(), info.getStatus(),
+                    info.getUpdateBy(), info.getRemark(), info.getInfoId()});
+        }
+        executeBatch(UPDATE_QUERY_INFO_SQL, batchArgs, UPDATE_QUERY_INFO_TYPES);
+    }
+
+    /**
+     * 工具类-批量重建资料的标签索引
+     *
+     * @param infoList
+     */
+    private void batchSaveInfoTags(List<QueryInfo> infoList) {
+        // 标签为空的资料不更新标签（保留原值），其标签索引也保持不变
+        infoList = infoList.stream().filter(info -> StringUtils.isNotEmpty(info.getInfoTags())).collect(Collectors.toList());
+        List<Integer> infoIds = infoList.stream().map(QueryInfo::getInfoId).filter(Objects::nonNull).collect(Collectors.toList());
+        for (int i = 0; i < infoIds.size(); i += BATCH_DELETE_SIZE) {
+            queryInfoTagMapper.deleteQueryInfoTagByInfoIds(infoIds.subList(i, Math.min(i + BATCH_DELETE_SIZE, infoIds.size())).toArray(new Integer[0]));
+        }
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (QueryInfo info : infoList) {
+            if (info.getInfoId() != null) {
+                splitInfoTags(info.getInfoTags()).forEach(tag -> batchArgs.add(new Object[]{info.getInfoId(), tag}));
+            }
+        }
+        executeBatch(INSERT_QUERY_INFO_TAG_SQL, batchArgs, INSERT_QUERY_INFO_TAG_TYPES);
+    }
+
+    /**
+     * 工具类-分批执行JDBC批处理，参与当前事务
+     */
+    private void executeBatch(String sql, List<Object[]> batchArgs, int[] argTypes) {
+        for (int i = 0; i < batchArgs.size(); i += JDBC_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, batchArgs.subList(i, Math.min(i + JDBC_BATCH_SIZE, batchArgs.size())), argTypes);
+        }
+    }
+
+    private String emptyToNull(String value) {
+        return StringUtils.isEmpty(value) ? null : value;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,16 @@
 package com.mes.system.service.impl;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
 import com.mes.common.annotation.DataSource;
 import com.mes.common.constant.CacheConstants;
@@ -25,6 +31,16 @@ import com.mes.system.service.ISysConfigService;
  */
 @Service
 public class SysConfigServiceImpl implements ISysConfigService {
+    /**
+     * 清空全部本地参数缓存的通知内容
+     */
+    private static final String CLEAR_ALL = "*";
+
+    /**
+     * 本地参数缓存有效期（兜底丢失的变更通知）
+     */
+    private static final long LOCAL_CACHE_TTL = TimeUnit.MINUTES.toMillis(5);
+
     @Autowired
     private SysConfigMapper configMapper;
 
@@ -32,10 +48,21 @@ public class SysConfigServiceImpl implements ISysConfigService {
     private RedisCache redisCache;
 
     /**
-     * 项目启动时，初始化参数到缓存
+     * 本地参数缓存 参数键名 -> 参数值
+     */
+    private final Map<String, LocalConfig> localConfigs = new ConcurrentHashMap<>();
+
+    /**
+     * 本地参数缓存版本号，每次失效时递增，防止失效前读取的旧值在失效后写回
+     */
+    private final AtomicLong localVersion = new AtomicLong();
+
+    /**
+     * 项目启动时，初始化参数到缓存，并订阅参数变更通知以清除本地参数缓存
      */
     @PostConstruct
     public void init() {
+        redisCache.<String>subscribe(CacheConstants.SYS_CONFIG_TOPIC, this::removeLocalConfig);
         loadingConfigCache();
     }
 
@@ -61,6 +88,100 @@ public class SysConfigServiceImpl implements ISysConfigService {
      */
     @Override
     public String selectConfigByKey(String configKey) {
+        return getLocalConfig(configKey).value;
+    }
+
+    /**
+     * 根据键名查询布尔类型参数
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    @Override
+    public boolean selectConfigBoolean(String configKey, boolean defaultValue) {
+        Boolean value = getLocalConfig(configKey).boolValue;
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 根据键名查询整数类型参数
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    @Override
+    public int selectConfigInt(String configKey, int defaultValue) {
+        Integer value = getLocalConfig(configKey).intValue;
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 根据键名查询时长类型参数（支持 30s、10m、PT1H 等格式，纯数字按毫秒）
+     *
+     * @param configKey    参数键名
+     * @param defaultValue 参数不存在或无法解析时的默认值
+     * @return 参数值
+     */
+    @Override
+    public Duration selectConfigDuration(String configKey, Duration defaultValue) {
+        Duration value = getLocalConfig(configKey).durationValue;
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 获取本地参数，不存在或过期时从Redis/数据库加载
+     *
+     * @param configKey 参数键名
+     * @return 本地参数
+     */
+    private LocalConfig getLocalConfig(String configKey) {
+        LocalConfig config = localConfigs.get(configKey);
+        long now = System.currentTimeMillis();
+        if (config != null && config.expireTime > now) {
+            return config;
+        }
+        long version = localVersion.get();
+        config = new LocalConfig(loadConfigValue(configKey), now + LOCAL_CACHE_TTL);
+        // 加载期间发生过失效则不写回，下次读取重新加载
+        if (version == localVersion.get()) {
+            localConfigs.put(configKey, config);
+        }
+        return config;
+    }
+
+    /**
+     * 清除本地参数缓存（收到参数变更通知时调用）
+     *
+     * @param configKey 参数键名，CLEAR_ALL 表示全部
+     */
+    private void removeLocalConfig(String configKey) {
+        localVersion.incrementAndGet();
+        if (CLEAR_ALL.equals(configKey)) {
+            localConfigs.clear();
+        } else if (StringUtils.isNotNull(configKey)) {
+            localConfigs.remove(configKey);
+        }
+    }
+
+    /**
+     * 通知各节点参数已变更
+     *
+     * @param configKey 参数键名，CLEAR_ALL 表示全部
+     */
+    private void publishConfigChange(String configKey) {
+        removeLocalConfig(configKey);
+        redisCache.publish(CacheConstants.SYS_CONFIG_TOPIC, configKey);
+    }
+
+    /**
+     * 从Redis读取参数值，Redis中不存在时查询数据库并回填
+     *
+     * @param configKey 参数键名
+     * @return 参数值
+     */
+    private String loadConfigValue(String configKey) {
         String configValue = Convert.toStr(redisCache.getCacheObject(getCacheKey(configKey)));
         if (StringUtils.isNotEmpty(configValue)) {
             return configValue;
@@ -82,11 +203,7 @@ public class SysConfigServiceImpl implements ISysConfigService {
      */
     @Override
     public boolean selectCaptchaEnabled() {
-        String captchaEnabled = selectConfigByKey("sys.account.captchaEnabled");
-        if (StringUtils.isEmpty(captchaEnabled)) {
-            return true;
-        }
-        return Convert.toBool(captchaEnabled);
+        return selectConfigBoolean("sys.account.captchaEnabled", true);
     }
 
     /**
@@ -111,6 +228,7 @@ public class SysConfigServiceImpl implements ISysConfigService {
         int row = configMapper.insertConfig(config);
         if (row > 0) {
             redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
+            publishConfigChange(config.getConfigKey());
         }
         return row;
     }
@@ -126,11 +244,13 @@ public class SysConfigServiceImpl implements ISysConfigService {
         SysConfig temp = configMapper.selectConfigById(config.getConfigId());
         if (!StringUtils.equals(temp.getConfigKey(), config.getConfigKey())) {
             redisCache.deleteObject(getCacheKey(temp.getConfigKey()));
+            publishConfigChange(temp.getConfigKey());
         }
 
         int row = configMapper.updateConfig(config);
         if (row > 0) {
             redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
+            publishConfigChange(config.getConfigKey());
         }
         return row;
     }
@@ -149,6 +269,7 @@ public class SysConfigServiceImpl implements ISysConfigService {
             }
             configMapper.deleteConfigById(configId);
             redisCache.deleteObject(getCacheKey(config.getConfigKey()));
+            publishConfigChange(config.getConfigKey());
         }
     }
 
@@ -169,7 +290,8 @@ public class SysConfigServiceImpl implements ISysConfigService {
     @Override
     public void clearConfigCache() {
         Collection<String> keys = redisCache.keys(CacheConstants.SYS_CONFIG_KEY + "*");
-        redisCache.deleteObject(keys);
+        redisCache.deleteObjects(keys);
+        publishConfigChange(CLEAR_ALL);
     }
 
     /**
@@ -206,4 +328,53 @@ public class SysConfigServiceImpl implements ISysConfigService {
     private String getCacheKey(String configKey) {
         return CacheConstants.SYS_CONFIG_KEY + configKey;
     }
+
+    /**
+     * 本地参数，创建时一次性解析出各类型的值
+     */
+    private static class LocalConfig {
+        /**
+         * 参数值
+         */
+        private final String value;
+
+        /**
+         * 布尔值，无法解析时为 null
+         */
+        private final Boolean boolValue;
+
+        /**
+         * 整数值，无法解析时为 null
+         */
+        private final Integer intValue;
+
+        /**
+         * 时长值，无法解析时为 null
+         */
+        private final Duration durationValue;
+
+        /**
+         * 过期时间
+         */
+        private final long expireTime;
+
+        LocalConfig(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+            this.boolValue = Convert.toBool(value, null);
+            this.intValue = Convert.toInt(value, null);
+            this.durationValue = parseDuration(value);
+        }
+
+        private static Duration parseDuration(String value) {
+            if (StringUtils.isBlank(value)) {
+                return null;
+            }
+            try {
+                return DurationStyle.detectAndParse(value.trim());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
 }
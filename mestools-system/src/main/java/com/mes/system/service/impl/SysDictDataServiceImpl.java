@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.mes.common.core.domain.entity.SysDictData;
 import com.mes.common.utils.DictUtils;
+import com.mes.common.utils.StringUtils;
 import com.mes.system.mapper.SysDictDataMapper;
 import com.mes.system.service.ISysDictDataService;
 
@@ -52,6 +53,11 @@ public class SysDictDataServiceImpl implements ISysDictDataService {
      */
     @Override
     public String selectDictByTypeAndLabel(String dictType, String dictLabel) {
+        // 优先按(类型,标签)从本地字典缓存查找，仅未命中（如停用的字典数据）时查询数据库
+        String dictValue = DictUtils.getDictValueByLabel(dictType, dictLabel);
+        if (StringUtils.isNotNull(dictValue)) {
+            return dictValue;
+        }
         return dictDataMapper.selectDictByTypeAndLabel(dictType, dictLabel);
     }
 
@@ -7,11 +7,15 @@ import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.mes.common.constant.CacheConstants;
 import com.mes.common.constant.UserConstants;
 import com.mes.common.core.domain.entity.SysDictData;
 import com.mes.common.core.domain.entity.SysDictType;
+import com.mes.common.core.redis.RedisCache;
 import com.mes.common.exception.ServiceException;
 import com.mes.common.utils.DictUtils;
 import com.mes.common.utils.StringUtils;
@@ -32,14 +36,27 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService {
     @Autowired
     private SysDictDataMapper dictDataMapper;
 
+    @Autowired
+    private RedisCache redisCache;
+
     /**
-     * 项目启动时，初始化字典到缓存
+     * 项目启动时，初始化字典到缓存，并订阅字典变更通知以清除本地字典缓存
      */
     @PostConstruct
     public void init() {
+        redisCache.<String>subscribe(CacheConstants.SYS_DICT_TOPIC, DictUtils::removeLocalDictCache);
         loadingDictCache();
     }
 
+    /**
+     * 应用启动完成后预热本地字典缓存，使首次字典查找也无需访问Redis
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpDictCache() {
+        List<String> dictTypes = dictTypeMapper.selectDictTypeAll().stream().map(SysDictType::getDictType).collect(Collectors.toList());
+        DictUtils.warmUpDictCache(dictTypes);
+    }
+
     /**
      * 根据条件分页查询字典类型
      *
@@ -105,6 +105,17 @@ public class SysUserServiceImpl implements ISysUserService {
         return userMapper.selectUserByUserName(userName);
     }
 
+    /**
+     * 通过用户名查询登录用户，一次查询带出部门、角色及角色菜单权限
+     *
+     * @param userName 用户名
+     * @return 用户对象信息
+     */
+    @Override
+    public SysUser selectLoginUserByUserName(String userName) {
+        return userMapper.selectLoginUserByUserName(userName);
+    }
+
     /**
      * 通过用户ID查询用户
      *
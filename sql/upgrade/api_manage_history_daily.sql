@@ -0,0 +1,25 @@
+-- ----------------------------
+-- 接口请求历史日汇总（超过保留天数的明细汇总后删除）
+-- ----------------------------
+IF OBJECT_ID(N'[dbo].[api_manage_history_daily]', N'U') IS NULL
+BEGIN
+CREATE TABLE [dbo].[api_manage_history_daily](
+	[item_id] [bigint] NOT NULL,
+	[stat_date] [date] NOT NULL,
+	[req_count] [int] NOT NULL,
+	[error_count] [int] NOT NULL,
+	[total_duration] [bigint] NOT NULL,
+	[max_duration] [int] NULL,
+PRIMARY KEY CLUSTERED
+(
+	[item_id] ASC,
+	[stat_date] ASC
+)
+) ON [PRIMARY]
+END
+GO
+
+-- 保留期清理按时间范围扫描明细
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'idx_api_manage_history_time' AND object_id = OBJECT_ID(N'[dbo].[api_manage_history]'))
+CREATE NONCLUSTERED INDEX [idx_api_manage_history_time] ON [dbo].[api_manage_history] ([create_time])
+GO
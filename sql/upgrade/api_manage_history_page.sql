@@ -0,0 +1,20 @@
+-- ----------------------------
+-- 接口请求历史：游标分页索引与快照压缩存储
+-- ----------------------------
+IF COL_LENGTH(N'dbo.api_manage_history', N'snapshot_gzip') IS NULL
+ALTER TABLE [dbo].[api_manage_history] ADD [snapshot_gzip] [varbinary](max) NULL
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'idx_api_manage_history_item_time' AND object_id = OBJECT_ID(N'[dbo].[api_manage_history]'))
+CREATE NONCLUSTERED INDEX [idx_api_manage_history_item_time] ON [dbo].[api_manage_history] ([item_id], [create_time] DESC)
+GO
+
+-- 存量快照压缩（COMPRESS 需 SQL Server 2016 及以上，格式与程序端 GZIP(UTF-16LE) 一致），分批执行避免长事务
+WHILE 1 = 1
+BEGIN
+    UPDATE TOP (1000) [dbo].[api_manage_history]
+    SET [snapshot_gzip] = COMPRESS([snapshot_json]), [snapshot_json] = NULL
+    WHERE [snapshot_json] IS NOT NULL
+    IF @@ROWCOUNT = 0 BREAK
+END
+GO
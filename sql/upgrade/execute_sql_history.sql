@@ -0,0 +1,25 @@
+-- ----------------------------
+-- SQL执行分析历史记录（执行计划与统计信息）
+-- ----------------------------
+IF OBJECT_ID(N'[dbo].[execute_sql_history]', N'U') IS NULL
+BEGIN
+CREATE TABLE [dbo].[execute_sql_history](
+	[history_id] [bigint] IDENTITY(1,1) NOT NULL,
+	[db_name] [nvarchar](50) NOT NULL,
+	[sql_content] [nvarchar](max) NOT NULL,
+	[estimated_cost] [float] NULL,
+	[logical_reads] [bigint] NULL,
+	[cpu_time] [bigint] NULL,
+	[elapsed_time] [bigint] NULL,
+	[analysis_json] [nvarchar](max) NULL,
+	[plan_xml] [nvarchar](max) NULL,
+	[create_by] [nvarchar](64) NULL,
+	[create_time] [datetime] NULL,
+PRIMARY KEY CLUSTERED
+(
+	[history_id] ASC
+)
+) ON [PRIMARY] TEXTIMAGE_ON [PRIMARY]
+CREATE NONCLUSTERED INDEX [idx_execute_sql_history_time] ON [dbo].[execute_sql_history] ([create_time] DESC)
+END
+GO
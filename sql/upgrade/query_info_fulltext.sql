@@ -0,0 +1,33 @@
+-- ----------------------------
+-- 资料查询全文检索
+-- 1. info_text 保存 info_content 去除HTML标签与内联图片后的纯文本，由应用在新增/修改/导入时维护，
+--    升级后由管理员调用一次 POST /dailytools/queryInfo/maintain/backfillText 分批回填 info_text 为空的历史数据
+-- 2. 全文索引覆盖标题、标签、类型与纯文本内容，CHANGE_TRACKING AUTO 在新增/修改/删除后自动增量更新
+-- ----------------------------
+IF COL_LENGTH(N'dbo.query_info', N'info_text') IS NULL
+BEGIN
+ALTER TABLE [dbo].[query_info] ADD [info_text] [nvarchar](max) NULL
+END
+GO
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'ux_query_info_id' AND object_id = OBJECT_ID(N'dbo.query_info'))
+BEGIN
+CREATE UNIQUE NONCLUSTERED INDEX [ux_query_info_id] ON [dbo].[query_info] ([info_id])
+END
+GO
+IF NOT EXISTS (SELECT 1 FROM sys.fulltext_catalogs WHERE name = N'ft_dailytools')
+BEGIN
+CREATE FULLTEXT CATALOG [ft_dailytools] AS DEFAULT
+END
+GO
+IF NOT EXISTS (SELECT 1 FROM sys.fulltext_indexes WHERE object_id = OBJECT_ID(N'dbo.query_info'))
+BEGIN
+CREATE FULLTEXT INDEX ON [dbo].[query_info] (
+	[info_title] LANGUAGE 2052,
+	[info_tags] LANGUAGE 2052,
+	[info_type] LANGUAGE 2052,
+	[info_text] LANGUAGE 2052
+)
+KEY INDEX [ux_query_info_id] ON [ft_dailytools]
+WITH CHANGE_TRACKING AUTO
+END
+GO
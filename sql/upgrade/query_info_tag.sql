@@ -0,0 +1,29 @@
+-- ----------------------------
+-- 资料标签索引表：info_tags 拆分后的规范化存储，由应用在新增/修改/删除/导入时维护
+-- 多标签OR查询通过 EXISTS + IN 走 (tag, info_id) 索引查找
+-- ----------------------------
+IF OBJECT_ID(N'[dbo].[query_info_tag]', N'U') IS NULL
+BEGIN
+CREATE TABLE [dbo].[query_info_tag](
+	[info_id] [int] NOT NULL,
+	[tag] [nvarchar](100) NOT NULL,
+CONSTRAINT [pk_query_info_tag] PRIMARY KEY CLUSTERED
+(
+	[info_id] ASC,
+	[tag] ASC
+)
+) ON [PRIMARY]
+CREATE NONCLUSTERED INDEX [idx_query_info_tag_tag] ON [dbo].[query_info_tag] ([tag], [info_id])
+END
+GO
+
+-- ----------------------------
+-- 回填历史数据
+-- ----------------------------
+INSERT INTO [dbo].[query_info_tag] (info_id, tag)
+SELECT DISTINCT q.info_id, LTRIM(RTRIM(s.value))
+FROM [dbo].[query_info] q
+CROSS APPLY STRING_SPLIT(q.info_tags, ',') s
+WHERE LTRIM(RTRIM(s.value)) <> ''
+AND NOT EXISTS (SELECT 1 FROM [dbo].[query_info_tag] t WHERE t.info_id = q.info_id AND t.tag = LTRIM(RTRIM(s.value)))
+GO